@@ -0,0 +1,68 @@
+package org.r7l.rarityx.benchmark;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.rarity.Rarity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buff application on a fresh copy of an item.
+ * {@link #cloneOnly()} measures the copy alone so it can be subtracted.
+ * 
+ * @author R7LRod
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuffManagerBenchmark {
+    
+    @Param({"DIAMOND_SWORD", "DIAMOND_PICKAXE", "DIAMOND_BOOTS"})
+    public String material;
+    
+    @Param({"COMMON", "RARE", "MYTHIC"})
+    public String rarity;
+    
+    private ItemStack base;
+    private Rarity buffRarity;
+    
+    @Setup(Level.Trial)
+    public void setUp(PluginState state) {
+        base = new ItemStack(Material.valueOf(material));
+        buffRarity = Rarity.fromString(rarity);
+    }
+    
+    @Benchmark
+    public ItemStack cloneOnly() {
+        return base.clone();
+    }
+    
+    @Benchmark
+    public ItemStack applyBuffs() {
+        return BuffManager.applyBuffs(base.clone(), buffRarity);
+    }
+    
+    /**
+     * Re-applying to an already buffed item, which must not grow it
+     */
+    @Benchmark
+    public ItemStack reapplyBuffs() {
+        return BuffManager.applyBuffs(BuffManager.applyBuffs(base.clone(), buffRarity), buffRarity);
+    }
+}
\ No newline at end of file
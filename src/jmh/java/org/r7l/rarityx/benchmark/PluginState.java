@@ -0,0 +1,33 @@
+package org.r7l.rarityx.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.r7l.rarityx.RarityX;
+
+/**
+ * Mock server with RarityX enabled, shared by all benchmarks of a trial
+ * 
+ * @author R7LRod
+ */
+@State(Scope.Benchmark)
+public class PluginState {
+    
+    ServerMock server;
+    RarityX plugin;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(RarityX.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockBukkit.unmock();
+    }
+}
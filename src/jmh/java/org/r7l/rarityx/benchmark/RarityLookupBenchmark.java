@@ -0,0 +1,46 @@
+package org.r7l.rarityx.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.r7l.rarityx.rarity.Rarity;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rarity name parsing, as used by commands and legacy tag migration.
+ * Needs no server.
+ * 
+ * @author R7LRod
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RarityLookupBenchmark {
+    
+    @Param({"MYTHIC", "uncommon", "Legendary", "myth", "unknown"})
+    public String name;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Rarity.setAliases(Map.of("legendary", Rarity.fromString("mythic"), "myth", Rarity.fromString("mythic")));
+    }
+    
+    @Benchmark
+    public Rarity fromString() {
+        return Rarity.fromString(name);
+    }
+}
\ No newline at end of file
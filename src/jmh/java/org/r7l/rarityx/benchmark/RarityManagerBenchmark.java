@@ -0,0 +1,140 @@
+package org.r7l.rarityx.benchmark;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.r7l.rarityx.rarity.Rarity;
+import org.r7l.rarityx.rarity.RarityManager;
+import org.r7l.rarityx.rarity.RaritySettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rarity reads, rolls and sampling
+ * 
+ * @author R7LRod
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RarityManagerBenchmark {
+    
+    private RarityManager rarityManager;
+    private ItemStack tagged;
+    private ItemStack untagged;
+    private Random random;
+    
+    @Setup(Level.Trial)
+    public void setUp(PluginState state) {
+        rarityManager = state.plugin.getRarityManager();
+        tagged = rarityManager.setRarity(new ItemStack(Material.DIAMOND_SWORD), Rarity.fromString("epic"));
+        untagged = new ItemStack(Material.DIAMOND_SWORD);
+        random = new Random(42);
+    }
+    
+    /**
+     * A fresh item carrying the pre-v2 STRING tag, since reading it migrates the tag
+     */
+    @State(Scope.Thread)
+    public static class LegacyItem {
+        
+        ItemStack item;
+        
+        @Setup(Level.Invocation)
+        public void setUp(PluginState state) {
+            item = new ItemStack(Material.DIAMOND_SWORD);
+            ItemMeta meta = item.getItemMeta();
+            meta.getPersistentDataContainer().set(new NamespacedKey(state.plugin, "rarity"),
+                PersistentDataType.STRING, "EPIC");
+            item.setItemMeta(meta);
+        }
+    }
+    
+    /**
+     * A fresh batch of mob-farm drops: mostly ineligible items with some gear
+     */
+    @State(Scope.Thread)
+    public static class DropBatch {
+        
+        List<ItemStack> drops;
+        
+        @Setup(Level.Invocation)
+        public void setUp() {
+            drops = new ArrayList<>(16);
+            for (int i = 0; i < 12; i++) {
+                drops.add(new ItemStack(i % 2 == 0 ? Material.ROTTEN_FLESH : Material.BONE, 2));
+            }
+            drops.add(new ItemStack(Material.IRON_SWORD));
+            drops.add(new ItemStack(Material.BOW));
+            drops.add(new ItemStack(Material.GOLDEN_HELMET));
+            drops.add(new ItemStack(Material.ARROW, 3));
+        }
+    }
+    
+    @Benchmark
+    public Rarity getRarityTagged() {
+        return rarityManager.getRarity(tagged);
+    }
+    
+    @Benchmark
+    public Rarity getRarityTaggedUncached() {
+        rarityManager.getRarityCache().invalidate(tagged);
+        return rarityManager.getRarity(tagged);
+    }
+    
+    @Benchmark
+    public Rarity getRarityUntagged() {
+        rarityManager.getRarityCache().invalidate(untagged);
+        return rarityManager.getRarity(untagged);
+    }
+    
+    @Benchmark
+    public Rarity getRarityLegacy(LegacyItem legacy) {
+        return rarityManager.getRarity(legacy.item);
+    }
+    
+    /**
+     * Same draw as {@code RarityManager.rollRarity} for a standard material
+     */
+    @Benchmark
+    public Rarity generateRandomRarity() {
+        return RaritySettings.current().getSampler(Material.IRON_SWORD).sample(random);
+    }
+    
+    /**
+     * Same draw as {@code RarityManager.rollRarity} for a boosted material
+     */
+    @Benchmark
+    public Rarity generateRandomRarityValuable() {
+        return RaritySettings.current().getSampler(Material.NETHERITE_SWORD).sample(random);
+    }
+    
+    @Benchmark
+    public ItemStack roll() {
+        return rarityManager.roll(untagged.clone());
+    }
+    
+    @Benchmark
+    public int rollAllDrops(DropBatch batch) {
+        return rarityManager.rollAll(batch.drops);
+    }
+}
\ No newline at end of file
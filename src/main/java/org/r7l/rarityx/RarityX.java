@@ -1,12 +1,30 @@
 package org.r7l.rarityx;
 
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.buffs.BuffRules;
 import org.r7l.rarityx.commands.RarityXCommand;
 import org.r7l.rarityx.config.ConfigManager;
-import org.r7l.rarityx.listeners.ItemListener;
+import org.r7l.rarityx.config.PluginSettings;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.listeners.ChunkListener;
+import org.r7l.rarityx.listeners.CraftListener;
+import org.r7l.rarityx.listeners.DropListener;
+import org.r7l.rarityx.listeners.FeatureListeners;
+import org.r7l.rarityx.listeners.FishListener;
+import org.r7l.rarityx.listeners.HeldItemListener;
+import org.r7l.rarityx.listeners.LootListener;
+import org.r7l.rarityx.listeners.MobDropListener;
 import org.r7l.rarityx.listeners.PlayerListener;
+import org.r7l.rarityx.listeners.SpecialEffectsListener;
+import org.r7l.rarityx.listeners.TradeListener;
+import org.r7l.rarityx.metrics.Metrics;
+import org.r7l.rarityx.migrate.WorldMigration;
 import org.r7l.rarityx.rarity.RarityManager;
+import org.r7l.rarityx.tasks.TickBudgetQueue;
 
+import java.io.IOException;
 import java.util.logging.Level;
 
 /**
@@ -21,6 +39,10 @@ public final class RarityX extends JavaPlugin {
     
     private ConfigManager configManager;
     private RarityManager rarityManager;
+    private BukkitTask metricsTask;
+    private TickBudgetQueue backgroundQueue;
+    private FeatureListeners featureListeners;
+    private WorldMigration migration;
     
     @Override
     public void onEnable() {
@@ -32,24 +54,93 @@ public final class RarityX extends JavaPlugin {
         configManager = new ConfigManager(this);
         configManager.loadConfig();
         
+        // Handler timings for /rarityx stats
+        configureMetrics(configManager);
+        configManager.addReloadListener(this::configureMetrics);
+        
+        // Build the material classification table
+        MaterialClassifier.install(MaterialClassifier.load(configManager, getLogger()));
+        configManager.addReloadListener(config ->
+            MaterialClassifier.install(MaterialClassifier.load(config, getLogger())));
+        
         // Initialize rarity manager
         rarityManager = new RarityManager(this);
         
+        // Compile buff profiles and prebuild buff templates once classifier and rarity settings are loaded
+        BuffRules.install(BuffRules.load(configManager, getLogger()));
+        BuffManager.rebuildTemplates();
+        configManager.addReloadListener(config -> {
+            BuffRules.install(BuffRules.load(config, getLogger()));
+            BuffManager.rebuildTemplates();
+        });
+        
+        // Time-budgeted main-thread queue for background item processing
+        backgroundQueue = new TickBudgetQueue("background", configManager.getSettings().tickBudgetMillis());
+        configManager.addReloadListener(config -> backgroundQueue.setBudget(config.getSettings().tickBudgetMillis()));
+        getServer().getScheduler().runTaskTimer(this, backgroundQueue, 1L, 1L);
+        
         // Register commands
         getCommand("rarityx").setExecutor(new RarityXCommand(this));
         
-        // Register listeners
-        getServer().getPluginManager().registerEvents(new ItemListener(this), this);
-        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+        // Listeners for optional features, only registered while enabled
+        featureListeners = new FeatureListeners(this);
+        featureListeners.add(new CraftListener(this), PluginSettings::assignRarityOnCraft);
+        PlayerListener playerListener = new PlayerListener(this);
+        featureListeners.add(playerListener, PluginSettings::assignRarityOnJoin, playerListener::cancelAll);
+        ChunkListener chunkListener = new ChunkListener(this);
+        featureListeners.add(chunkListener, PluginSettings::assignRarityOnChunkLoad, chunkListener::cancelAll);
+        featureListeners.add(new DropListener(this), PluginSettings::assignRarityOnDrop);
+        featureListeners.add(new LootListener(this), PluginSettings::assignRarityOnLoot);
+        featureListeners.add(new MobDropListener(this), PluginSettings::assignRarityOnMobDrop);
+        featureListeners.add(new FishListener(this), PluginSettings::assignRarityOnFish);
+        featureListeners.add(new TradeListener(this), PluginSettings::assignRarityOnTrade);
+        featureListeners.add(new SpecialEffectsListener(this), PluginSettings::enableSpecialEffects);
+        // Only special effects read the held-rarity cache. It misses every change while
+        // unregistered, so it is cleared whenever the listener is toggled
+        featureListeners.add(new HeldItemListener(this), PluginSettings::enableSpecialEffects,
+            rarityManager.getHeldRarityCache()::clear);
+        featureListeners.refresh(configManager.getSettings());
+        configManager.addReloadListener(config -> featureListeners.refresh(config.getSettings()));
+        
+        // A migration scheduled with /rarityx migrate schedule runs now, before any world is loaded
+        try {
+            migration = WorldMigration.runScheduled(this);
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Scheduled migration could not start", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         
         getLogger().log(Level.INFO, "RarityX v" + getDescription().getVersion() + " has been enabled!");
     }
     
     @Override
     public void onDisable() {
+        if (backgroundQueue != null) {
+            backgroundQueue.clear();
+        }
+        if (migration != null) {
+            migration.cancel();
+        }
+        
         getLogger().log(Level.INFO, "RarityX v" + getDescription().getVersion() + " has been disabled!");
     }
     
+    /**
+     * Apply the metrics settings and restart the window rotation task
+     * @param config The configuration manager
+     */
+    private void configureMetrics(ConfigManager config) {
+        Metrics.configure(config.getSettings().metricsEnabled(), config.getSettings().metricsAllocations());
+        
+        if (metricsTask != null) {
+            metricsTask.cancel();
+        }
+        long windowTicks = config.getSettings().metricsWindowSeconds() * 20L;
+        metricsTask = getServer().getScheduler().runTaskTimerAsynchronously(this, Metrics::rotate,
+            windowTicks, windowTicks);
+    }
+    
     /**
      * Get the plugin instance
      * @return Plugin instance
@@ -66,6 +157,14 @@ public final class RarityX extends JavaPlugin {
         return configManager;
     }
     
+    /**
+     * Get the main-thread queue for time-budgeted background work
+     * @return TickBudgetQueue instance
+     */
+    public TickBudgetQueue getBackgroundQueue() {
+        return backgroundQueue;
+    }
+    
     /**
      * Get the rarity manager
      * @return RarityManager instance
@@ -73,4 +172,20 @@ public final class RarityX extends JavaPlugin {
     public RarityManager getRarityManager() {
         return rarityManager;
     }
+    
+    /**
+     * Get the last offline migration started with {@code /rarityx migrate}
+     * @return The migration, or null if none was started
+     */
+    public WorldMigration getMigration() {
+        return migration;
+    }
+    
+    /**
+     * Set the current offline migration
+     * @param migration The migration
+     */
+    public void setMigration(WorldMigration migration) {
+        this.migration = migration;
+    }
 }
\ No newline at end of file
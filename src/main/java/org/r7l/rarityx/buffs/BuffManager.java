@@ -1,25 +1,132 @@
 package org.r7l.rarityx.buffs;
 
+import com.google.common.collect.Multimap;
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.r7l.rarityx.items.ItemCategory;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.metrics.Metrics;
+import org.r7l.rarityx.metrics.Timer;
 import org.r7l.rarityx.rarity.Rarity;
+import org.r7l.rarityx.rarity.RaritySettings;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ObjIntConsumer;
+import java.util.random.RandomGenerator;
 
 /**
  * Handles buff application based on rarity
+ * <p>
+ * Thread-safe. Buffs are computed from immutable {@link BuffTemplate}s
+ * published through a volatile table, and {@link #getTemplate} and
+ * {@link #rollEnchantments} are pure, so they can run on worker threads such
+ * as migration jobs or region threads. The methods taking an {@link ItemMeta}
+ * or {@link ItemStack} only mutate that object and must be called by the
+ * thread that owns it. Random draws use {@link ThreadLocalRandom}, never a
+ * shared generator.
  * 
  * @author R7LRod
  */
 public class BuffManager {
     
     /**
-     * Apply buffs to an item based on its rarity
+     * Name prefix shared by every modifier RarityX adds, including pre-template random-UUID ones
+     */
+    public static final String MODIFIER_PREFIX = "rarityx_";
+    
+    private static final String MINING_SPEED_LORE = "§6Mining Speed: +";
+    
+    /**
+     * Rarity code ({@link PersistentDataType#BYTE}) whose enchantment bonus has already been rolled for an item
+     */
+    public static final NamespacedKey ENCHANTED_KEY = NamespacedKey.fromString("rarityx:buff_enchants");
+    
+    private static final Enchantment[] WEAPON_ENCHANTMENTS = {
+        Enchantment.DAMAGE_ALL, Enchantment.DAMAGE_ARTHROPODS,
+        Enchantment.DAMAGE_UNDEAD, Enchantment.KNOCKBACK,
+        Enchantment.FIRE_ASPECT, Enchantment.LOOTING,
+        Enchantment.SWEEPING_EDGE, Enchantment.MENDING
+    };
+    
+    private static final Enchantment[] TOOL_ENCHANTMENTS = {
+        Enchantment.DIG_SPEED, Enchantment.SILK_TOUCH,
+        Enchantment.LOOT_BONUS_BLOCKS, Enchantment.MENDING
+    };
+    
+    private static final Enchantment[] ARMOR_ENCHANTMENTS = {
+        Enchantment.PROTECTION_ENVIRONMENTAL, Enchantment.PROTECTION_FIRE,
+        Enchantment.PROTECTION_PROJECTILE, Enchantment.PROTECTION_EXPLOSIONS,
+        Enchantment.THORNS, Enchantment.MENDING
+    };
+    
+    private static final Enchantment[] NO_ENCHANTMENTS = new Enchantment[0];
+    
+    private static final Timer APPLY_BUFFS_TIMER = Metrics.timer("BuffManager.applyBuffs");
+    
+    private static volatile BuffTemplates templates = BuffTemplates.EMPTY;
+    
+    /**
+     * Rebuild the buff templates from the current classifier, rarity settings
+     * and buff rules. Called on startup and after {@code /rarityx reload}.
+     */
+    public static void rebuildTemplates() {
+        MaterialClassifier classifier = MaterialClassifier.current();
+        RaritySettings settings = RaritySettings.current();
+        BuffRules rules = BuffRules.current();
+        Material[] materials = Material.values();
+        BuffTemplate[][] table = new BuffTemplate[materials.length][];
+        
+        for (Material material : materials) {
+            ItemCategory category = classifier.getCategory(material);
+            if (!category.isEligible()) {
+                continue;
+            }
+            
+            BuffTemplate[] row = new BuffTemplate[Rarity.getAll().size()];
+            for (Rarity rarity : Rarity.getAll()) {
+                row[rarity.getId()] = buildTemplate(material, category, classifier.getArmorSlot(material),
+                    rules.get(category, rarity), settings.getMultiplier(rarity));
+            }
+            table[material.ordinal()] = row;
+        }
+        
+        templates = new BuffTemplates(table);
+    }
+    
+    /**
+     * Get the current template table, to use one configuration across many lookups
+     * @return The table built by the last {@link #rebuildTemplates()}
+     */
+    public static BuffTemplates getTemplates() {
+        return templates;
+    }
+    
+    /**
+     * Get the buff profile of a rarity
+     * @param rarity The rarity
+     * @return The profile, {@link BuffProfile#EMPTY} if it has none
+     */
+    public static BuffProfile getProfile(Rarity rarity) {
+        return BuffRules.current().getProfile(rarity);
+    }
+    
+    /**
+     * Apply buffs to an item based on its rarity.
+     * Any buffs from an earlier application are replaced, so calling this
+     * repeatedly does not grow the item.
      * @param item The item to apply buffs to
      * @param rarity The rarity of the item
      * @return The modified item with buffs
@@ -29,234 +136,203 @@ public class BuffManager {
             return item;
         }
         
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) {
+        // An item without meta has nothing to strip, so skip cloning one
+        if (getTemplate(item.getType(), rarity) == null && !item.hasItemMeta()) {
             return item;
         }
         
-        Material material = item.getType();
-        
-        // Apply weapon buffs
-        if (isWeapon(material)) {
-            applyWeaponBuffs(meta, rarity, material);
-        }
-        
-        // Apply tool buffs
-        if (isTool(material)) {
-            applyToolBuffs(meta, rarity, material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return item;
         }
         
-        // Apply armor buffs
-        if (isArmor(material)) {
-            applyArmorBuffs(meta, rarity, material);
+        if (applyBuffs(meta, item.getType(), rarity)) {
+            item.setItemMeta(meta);
         }
-        
-        // Apply enchantment buffs
-        applyEnchantmentBuffs(item, rarity);
-        
-        item.setItemMeta(meta);
         return item;
     }
     
     /**
-     * Apply weapon-specific buffs
+     * Apply buffs to an item meta without writing it back, so callers can
+     * combine them with other changes in a single {@link ItemStack#setItemMeta} call.
+     * If the material no longer gets buffs, those from an earlier configuration
+     * are removed; rolled enchantments and their marker stay, as with {@link #stripBuffs}.
+     * @param meta The meta to modify
+     * @param material The item type
+     * @param rarity The rarity of the item
+     * @return True if the meta was modified
      */
-    private static void applyWeaponBuffs(ItemMeta meta, Rarity rarity, Material material) {
-        double multiplier = rarity.getMultiplier();
+    public static boolean applyBuffs(ItemMeta meta, Material material, Rarity rarity) {
+        BuffTemplate template = getTemplate(material, rarity);
+        if (template == null) {
+            // Buffs from an earlier configuration that gave this material some
+            return stripBuffs(meta);
+        }
+        
+        long start = Metrics.start();
+        
+        // Drop buffs from previous applications, possibly of another rarity
+        stripBuffs(meta);
         
-        // Attack damage buff
-        AttributeModifier attackDamage = new AttributeModifier(
-            UUID.randomUUID(),
-            "rarityx_attack_damage",
-            (multiplier - 1.0) * getBaseAttackDamage(material),
-            AttributeModifier.Operation.ADD_NUMBER,
-            EquipmentSlot.HAND
-        );
-        meta.addAttributeModifier(Attribute.GENERIC_ATTACK_DAMAGE, attackDamage);
+        // Apply attribute and lore buffs
+        template.applyTo(meta);
         
-        // Attack speed buff for higher rarities
-        if (rarity.ordinal() >= Rarity.RARE.ordinal()) {
-            AttributeModifier attackSpeed = new AttributeModifier(
-                UUID.randomUUID(),
-                "rarityx_attack_speed",
-                (multiplier - 1.0) * 0.5,
-                AttributeModifier.Operation.ADD_NUMBER,
-                EquipmentSlot.HAND
-            );
-            meta.addAttributeModifier(Attribute.GENERIC_ATTACK_SPEED, attackSpeed);
+        // Apply enchantment buffs once per rarity. Items are only marked when there
+        // is something to roll, so enabling bonuses later still grants them
+        if (template.getEnchantRolls().length > 0) {
+            PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
+            Byte enchantedFor = dataContainer.get(ENCHANTED_KEY, PersistentDataType.BYTE);
+            if (enchantedFor == null || enchantedFor != rarity.getCode()) {
+                applyEnchantmentBuffs(meta, template);
+                dataContainer.set(ENCHANTED_KEY, PersistentDataType.BYTE, rarity.getCode());
+            }
         }
+        
+        APPLY_BUFFS_TIMER.stop(start);
+        return true;
     }
     
     /**
-     * Apply tool-specific buffs
+     * Remove all RarityX attribute modifiers and buff lore from an item meta.
+     * Modifiers are removed on every attribute, including ones no longer used
+     * by any buff profile. Enchantments are kept, since they cannot be told
+     * apart from ones the item already had.
+     * @param meta The meta to modify
+     * @return True if anything was removed
      */
-    private static void applyToolBuffs(ItemMeta meta, Rarity rarity, Material material) {
-        double multiplier = rarity.getMultiplier();
+    public static boolean stripBuffs(ItemMeta meta) {
+        boolean changed = false;
         
-        // Mining speed boost for higher rarities
-        if (rarity.ordinal() >= Rarity.UNCOMMON.ordinal()) {
-            // This would need to be handled in event listeners for actual mining speed
-            // Here we just add lore to indicate the boost
-            java.util.List<String> lore = meta.getLore();
-            if (lore == null) {
-                lore = new java.util.ArrayList<>();
+        if (meta.hasAttributeModifiers()) {
+            // The returned map is a copy, so removing while iterating is safe
+            Multimap<Attribute, AttributeModifier> modifiers = meta.getAttributeModifiers();
+            if (modifiers != null) {
+                for (Map.Entry<Attribute, AttributeModifier> entry : modifiers.entries()) {
+                    if (isOwnModifier(entry.getValue())) {
+                        changed |= meta.removeAttributeModifier(entry.getKey(), entry.getValue());
+                    }
+                }
             }
-            
-            int speedBoost = (int) ((multiplier - 1.0) * 100);
-            lore.add("§6Mining Speed: +" + speedBoost + "%");
+        }
+        
+        List<String> lore = meta.getLore();
+        if (lore != null && lore.removeIf(line -> line.startsWith(MINING_SPEED_LORE))) {
             meta.setLore(lore);
+            changed = true;
         }
+        
+        return changed;
     }
     
     /**
-     * Apply armor-specific buffs
+     * Check if a modifier was added by RarityX: by its name prefix, or by the
+     * deterministic UUID its name and slot would have been given
      */
-    private static void applyArmorBuffs(ItemMeta meta, Rarity rarity, Material material) {
-        double multiplier = rarity.getMultiplier();
-        EquipmentSlot slot = getArmorSlot(material);
-        
-        if (slot == null) return;
-        
-        // Armor toughness buff
-        if (rarity.ordinal() >= Rarity.RARE.ordinal()) {
-            AttributeModifier toughness = new AttributeModifier(
-                UUID.randomUUID(),
-                "rarityx_armor_toughness",
-                (multiplier - 1.0) * 2.0,
-                AttributeModifier.Operation.ADD_NUMBER,
-                slot
-            );
-            meta.addAttributeModifier(Attribute.GENERIC_ARMOR_TOUGHNESS, toughness);
-        }
-        
-        // Additional health for epic and mythic armor
-        if (rarity.ordinal() >= Rarity.EPIC.ordinal()) {
-            AttributeModifier health = new AttributeModifier(
-                UUID.randomUUID(),
-                "rarityx_max_health",
-                (multiplier - 1.0) * 4.0,
-                AttributeModifier.Operation.ADD_NUMBER,
-                slot
-            );
-            meta.addAttributeModifier(Attribute.GENERIC_MAX_HEALTH, health);
-        }
-        
-        // Movement speed for mythic armor
-        if (rarity == Rarity.MYTHIC && material.name().contains("BOOTS")) {
-            AttributeModifier speed = new AttributeModifier(
-                UUID.randomUUID(),
-                "rarityx_movement_speed",
-                0.02, // 2% speed boost
-                AttributeModifier.Operation.ADD_NUMBER,
-                slot
-            );
-            meta.addAttributeModifier(Attribute.GENERIC_MOVEMENT_SPEED, speed);
+    private static boolean isOwnModifier(AttributeModifier modifier) {
+        String name = modifier.getName();
+        if (name.startsWith(MODIFIER_PREFIX)) {
+            return true;
         }
+        EquipmentSlot slot = modifier.getSlot();
+        return slot != null && modifier.getUniqueId().equals(modifierId(name, slot));
     }
     
     /**
-     * Apply enchantment buffs based on rarity
+     * Look up the prebuilt buffs for an item type and rarity
+     * @param material The item type
+     * @param rarity The rarity
+     * @return The template, or null if the material gets no buffs
      */
-    private static void applyEnchantmentBuffs(ItemStack item, Rarity rarity) {
-        switch (rarity) {
-            case UNCOMMON:
-                // 25% chance for low-level enchantments
-                if (Math.random() < 0.25) {
-                    addRandomEnchantment(item, 1);
-                }
-                break;
-            case RARE:
-                // 50% chance for level 1-2 enchantments
-                if (Math.random() < 0.5) {
-                    addRandomEnchantment(item, 2);
-                }
-                break;
-            case EPIC:
-                // 75% chance for level 1-3 enchantments
-                if (Math.random() < 0.75) {
-                    addRandomEnchantment(item, 3);
-                }
-                break;
-            case MYTHIC:
-                // Guaranteed high-level enchantments
-                addRandomEnchantment(item, 4);
-                // Chance for additional enchantment
-                if (Math.random() < 0.5) {
-                    addRandomEnchantment(item, 3);
-                }
-                break;
-        }
+    public static BuffTemplate getTemplate(Material material, Rarity rarity) {
+        return templates.get(material, rarity);
     }
     
     /**
-     * Add a random enchantment to an item
+     * Build the buffs for one material and rarity from its compiled rules
      */
-    private static void addRandomEnchantment(ItemStack item, int maxLevel) {
-        Material material = item.getType();
-        Enchantment[] possibleEnchants = getPossibleEnchantments(material);
+    private static BuffTemplate buildTemplate(Material material, ItemCategory category, EquipmentSlot armorSlot,
+                                              BuffRules.Rule rule, double multiplier) {
+        TemplateBuilder builder = new TemplateBuilder();
+        EquipmentSlot slot = category.isArmor() ? armorSlot : EquipmentSlot.HAND;
         
-        if (possibleEnchants.length == 0) return;
+        // Attribute buffs
+        if (slot != null) {
+            for (BuffProfile.ModifierRule modifier : rule.modifiers()) {
+                if (modifier.slots() != null && !modifier.slots().contains(slot)) {
+                    continue;
+                }
+                
+                double amount = modifier.amount() + modifier.perMultiplier() * (multiplier - 1.0);
+                if (modifier.ofBaseDamage()) {
+                    amount *= getBaseAttackDamage(material);
+                }
+                builder.modifier(modifier.attribute(), modifier.modifierName(), amount, slot);
+            }
+        }
         
-        Enchantment enchant = possibleEnchants[(int) (Math.random() * possibleEnchants.length)];
-        int level = Math.min(maxLevel, enchant.getMaxLevel());
-        level = Math.max(1, (int) (Math.random() * level) + 1);
+        // Mining speed boost
+        if (rule.miningSpeedLore()) {
+            // This would need to be handled in event listeners for actual mining speed
+            // Here we just add lore to indicate the boost
+            int speedBoost = (int) ((multiplier - 1.0) * 100);
+            builder.lore(MINING_SPEED_LORE + speedBoost + "%");
+        }
         
-        item.addUnsafeEnchantment(enchant, level);
+        return builder.build(getPossibleEnchantments(category), rule.enchantRolls());
     }
     
     /**
-     * Get possible enchantments for a material
+     * Apply enchantment buffs based on rarity
      */
-    private static Enchantment[] getPossibleEnchantments(Material material) {
-        if (isWeapon(material)) {
-            return new Enchantment[]{
-                Enchantment.DAMAGE_ALL, Enchantment.DAMAGE_ARTHROPODS,
-                Enchantment.DAMAGE_UNDEAD, Enchantment.KNOCKBACK,
-                Enchantment.FIRE_ASPECT, Enchantment.LOOTING,
-                Enchantment.SWEEPING_EDGE, Enchantment.MENDING
-            };
-        } else if (isTool(material)) {
-            return new Enchantment[]{
-                Enchantment.DIG_SPEED, Enchantment.SILK_TOUCH,
-                Enchantment.LOOT_BONUS_BLOCKS, Enchantment.MENDING
-            };
-        } else if (isArmor(material)) {
-            return new Enchantment[]{
-                Enchantment.PROTECTION_ENVIRONMENTAL, Enchantment.PROTECTION_FIRE,
-                Enchantment.PROTECTION_PROJECTILE, Enchantment.PROTECTION_EXPLOSIONS,
-                Enchantment.THORNS, Enchantment.MENDING
-            };
-        }
-        
-        return new Enchantment[0];
+    private static void applyEnchantmentBuffs(ItemMeta meta, BuffTemplate template) {
+        rollEnchantments(template, ThreadLocalRandom.current(),
+            (enchant, level) -> meta.addEnchant(enchant, level, true));
     }
     
     /**
-     * Check if material is a weapon
+     * Roll the bonus enchantments of a template. Pure computation, safe to
+     * call from any thread.
+     * @param template The template of the item's type and rarity
+     * @param random The random source, not shared with other threads
+     * @param sink Receives each rolled enchantment and level
      */
-    private static boolean isWeapon(Material material) {
-        String name = material.name();
-        return name.contains("SWORD") || name.contains("AXE") || 
-               material == Material.BOW || material == Material.CROSSBOW ||
-               material == Material.TRIDENT;
+    public static void rollEnchantments(BuffTemplate template, RandomGenerator random,
+                                        ObjIntConsumer<Enchantment> sink) {
+        Enchantment[] pool = template.getEnchantments();
+        if (pool.length == 0) return;
+        
+        for (BuffProfile.EnchantRoll roll : template.getEnchantRolls()) {
+            if (roll.chance() >= 1.0 || random.nextDouble() < roll.chance()) {
+                addRandomEnchantment(pool, roll.maxLevel(), random, sink);
+            }
+        }
     }
     
     /**
-     * Check if material is a tool
+     * Pick a random enchantment and level from a pool
      */
-    private static boolean isTool(Material material) {
-        String name = material.name();
-        return name.contains("PICKAXE") || name.contains("SHOVEL") || 
-               name.contains("HOE") || (name.contains("AXE") && !name.contains("PICKAXE"));
+    private static void addRandomEnchantment(Enchantment[] pool, int maxLevel, RandomGenerator random,
+                                             ObjIntConsumer<Enchantment> sink) {
+        Enchantment enchant = pool[random.nextInt(pool.length)];
+        int level = Math.min(maxLevel, enchant.getMaxLevel());
+        level = Math.max(1, random.nextInt(Math.max(1, level)) + 1);
+        
+        sink.accept(enchant, level);
     }
     
     /**
-     * Check if material is armor
+     * Get possible enchantments for an item category
      */
-    private static boolean isArmor(Material material) {
-        String name = material.name();
-        return name.contains("HELMET") || name.contains("CHESTPLATE") || 
-               name.contains("LEGGINGS") || name.contains("BOOTS");
+    private static Enchantment[] getPossibleEnchantments(ItemCategory category) {
+        if (category.isWeapon()) {
+            return WEAPON_ENCHANTMENTS;
+        } else if (category.isTool()) {
+            return TOOL_ENCHANTMENTS;
+        } else if (category.isArmor()) {
+            return ARMOR_ENCHANTMENTS;
+        }
+        
+        return NO_ENCHANTMENTS;
     }
     
     /**
@@ -292,14 +368,33 @@ public class BuffManager {
     }
     
     /**
-     * Get equipment slot for armor pieces
+     * Stable UUID for a RarityX modifier, so repeated applications replace
+     * instead of stacking and no SecureRandom draw is needed
+     */
+    static UUID modifierId(String name, EquipmentSlot slot) {
+        return UUID.nameUUIDFromBytes(("rarityx:" + name + ":" + slot.name()).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Collects modifiers and lore while building a template
      */
-    private static EquipmentSlot getArmorSlot(Material material) {
-        String name = material.name();
-        if (name.contains("HELMET")) return EquipmentSlot.HEAD;
-        if (name.contains("CHESTPLATE")) return EquipmentSlot.CHEST;
-        if (name.contains("LEGGINGS")) return EquipmentSlot.LEGS;
-        if (name.contains("BOOTS")) return EquipmentSlot.FEET;
-        return null;
+    private static final class TemplateBuilder {
+        private final List<Attribute> attributes = new ArrayList<>();
+        private final List<AttributeModifier> modifiers = new ArrayList<>();
+        private final List<String> lore = new ArrayList<>();
+        
+        void modifier(Attribute attribute, String name, double amount, EquipmentSlot slot) {
+            attributes.add(attribute);
+            modifiers.add(new AttributeModifier(modifierId(name, slot), name, amount,
+                AttributeModifier.Operation.ADD_NUMBER, slot));
+        }
+        
+        void lore(String line) {
+            lore.add(line);
+        }
+        
+        BuffTemplate build(Enchantment[] enchantments, BuffProfile.EnchantRoll[] enchantRolls) {
+            return new BuffTemplate(attributes, modifiers, lore, enchantments, enchantRolls);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package org.r7l.rarityx.buffs;
+
+import org.bukkit.attribute.Attribute;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.EquipmentSlot;
+import org.r7l.rarityx.items.ItemCategory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * A named set of buffs from the {@code buff-profiles} config section.
+ * Rarity tiers pick a profile by name; several tiers may share one, and
+ * modifier amounts still scale with each tier's own multiplier.
+ * <p>
+ * Profiles are parsed once per reload and compiled into {@link BuffRules};
+ * nothing here is read while buffs are applied.
+ * 
+ * @author R7LRod
+ */
+public final class BuffProfile {
+    
+    /**
+     * Profile with no buffs, used for rarities whose profile is not defined
+     */
+    public static final BuffProfile EMPTY = new BuffProfile("none", List.of(), Set.of(), List.of(),
+        0.0, 0.0, 1.0, null);
+    
+    private final String name;
+    private final List<ModifierRule> modifiers;
+    private final Set<ItemCategory> miningSpeedLore;
+    private final List<EnchantRoll> enchantments;
+    private final double bonusExp;
+    private final double criticalChance;
+    private final double criticalDamage;
+    private final String criticalMessage;
+    
+    private BuffProfile(String name, List<ModifierRule> modifiers, Set<ItemCategory> miningSpeedLore,
+                        List<EnchantRoll> enchantments, double bonusExp, double criticalChance,
+                        double criticalDamage, String criticalMessage) {
+        this.name = name;
+        this.modifiers = List.copyOf(modifiers);
+        this.miningSpeedLore = miningSpeedLore;
+        this.enchantments = List.copyOf(enchantments);
+        this.bonusExp = bonusExp;
+        this.criticalChance = criticalChance;
+        this.criticalDamage = criticalDamage;
+        this.criticalMessage = criticalMessage;
+    }
+    
+    /**
+     * Parse a profile from its config section. Invalid entries are skipped with a warning.
+     * @param name The profile name
+     * @param section The profile's section
+     * @param logger Logger for invalid entries
+     * @return The profile
+     */
+    public static BuffProfile load(String name, ConfigurationSection section, Logger logger) {
+        List<ModifierRule> modifiers = new ArrayList<>();
+        for (Map<?, ?> entry : section.getMapList("modifiers")) {
+            ModifierRule rule = parseModifier(name, entry, logger);
+            if (rule == null) {
+                continue;
+            }
+            
+            // Modifier UUIDs come from the attribute and slot, so a second rule for the
+            // same attribute, category and slot would collide with the first on the item
+            if (overlapsEarlier(rule, modifiers)) {
+                logger.warning("Modifier " + rule.attribute() + " in buff profile " + name
+                    + " duplicates an earlier one for the same categories and slots");
+                continue;
+            }
+            modifiers.add(rule);
+        }
+        
+        List<EnchantRoll> enchantments = new ArrayList<>();
+        for (Map<?, ?> entry : section.getMapList("enchantments")) {
+            enchantments.add(new EnchantRoll(
+                Math.max(0.0, Math.min(1.0, number(entry.get("chance"), 1.0))),
+                Math.max(1, (int) number(entry.get("max-level"), 1))));
+        }
+        
+        ConfigurationSection critical = section.getConfigurationSection("critical-hit");
+        return new BuffProfile(name.toLowerCase(Locale.ROOT), modifiers,
+            parseCategories(name, section.getStringList("mining-speed-lore"), logger),
+            enchantments,
+            section.getDouble("bonus-exp", 0.0),
+            critical != null ? critical.getDouble("chance", 0.0) : 0.0,
+            critical != null ? critical.getDouble("damage", 1.0) : 1.0,
+            critical != null ? critical.getString("message") : null);
+    }
+    
+    /**
+     * Get the profile name
+     * @return Lower-case name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get the attribute modifier rules
+     * @return Unmodifiable rules, in config order
+     */
+    public List<ModifierRule> getModifiers() {
+        return modifiers;
+    }
+    
+    /**
+     * Check if items of a category show the mining speed lore line
+     * @param category The item category
+     * @return True if the line is added
+     */
+    public boolean hasMiningSpeedLore(ItemCategory category) {
+        return miningSpeedLore.contains(category);
+    }
+    
+    /**
+     * Get the bonus enchantment rolls, made once per rarity an item receives
+     * @return Unmodifiable rolls, in config order
+     */
+    public List<EnchantRoll> getEnchantments() {
+        return enchantments;
+    }
+    
+    /**
+     * Get the block-break experience bonus per point of multiplier above 1
+     * @return Bonus factor, 0 for none
+     */
+    public double getBonusExp() {
+        return bonusExp;
+    }
+    
+    /**
+     * Get the chance for a melee hit to deal critical damage
+     * @return Chance from 0 to 1
+     */
+    public double getCriticalChance() {
+        return criticalChance;
+    }
+    
+    /**
+     * Get the damage factor of a critical hit
+     * @return Damage multiplier
+     */
+    public double getCriticalDamage() {
+        return criticalDamage;
+    }
+    
+    /**
+     * Get the message sent to the attacker on a critical hit
+     * @return Message with a {@code {rarity}} placeholder, or null for none
+     */
+    public String getCriticalMessage() {
+        return criticalMessage;
+    }
+    
+    private static ModifierRule parseModifier(String profile, Map<?, ?> entry, Logger logger) {
+        Attribute attribute;
+        try {
+            attribute = Attribute.valueOf(String.valueOf(entry.get("attribute")).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown attribute in buff profile " + profile + ": " + entry.get("attribute"));
+            return null;
+        }
+        
+        Set<ItemCategory> categories = parseCategories(profile, strings(entry.get("categories")), logger);
+        if (categories.isEmpty()) {
+            logger.warning("Modifier " + attribute + " in buff profile " + profile + " has no categories");
+            return null;
+        }
+        
+        Set<EquipmentSlot> slots = null;
+        List<String> slotNames = strings(entry.get("slots"));
+        if (!slotNames.isEmpty()) {
+            slots = EnumSet.noneOf(EquipmentSlot.class);
+            for (String slotName : slotNames) {
+                try {
+                    slots.add(EquipmentSlot.valueOf(slotName.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown slot in buff profile " + profile + ": " + slotName);
+                }
+            }
+        }
+        
+        return new ModifierRule(attribute, categories, slots,
+            number(entry.get("amount"), 0.0),
+            number(entry.get("per-multiplier"), 0.0),
+            Boolean.TRUE.equals(entry.get("of-base-damage")));
+    }
+    
+    private static boolean overlapsEarlier(ModifierRule rule, List<ModifierRule> earlier) {
+        for (ModifierRule other : earlier) {
+            if (other.attribute() == rule.attribute()
+                && !Collections.disjoint(other.categories(), rule.categories())
+                && (other.slots() == null || rule.slots() == null || !Collections.disjoint(other.slots(), rule.slots()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Set<ItemCategory> parseCategories(String profile, List<String> names, Logger logger) {
+        Set<ItemCategory> categories = EnumSet.noneOf(ItemCategory.class);
+        for (String categoryName : names) {
+            try {
+                categories.add(ItemCategory.valueOf(categoryName.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Unknown item category in buff profile " + profile + ": " + categoryName);
+            }
+        }
+        categories.remove(ItemCategory.NONE);
+        return Collections.unmodifiableSet(categories);
+    }
+    
+    private static List<String> strings(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                result.add(String.valueOf(element));
+            }
+        } else if (value != null) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+    
+    private static double number(Object value, double fallback) {
+        return value instanceof Number ? ((Number) value).doubleValue() : fallback;
+    }
+    
+    /**
+     * One attribute modifier granted to items of some categories.
+     * The amount is {@code amount + perMultiplier * (multiplier - 1)}, times the
+     * material's base attack damage if {@code ofBaseDamage} is set.
+     * @param attribute The attribute to modify
+     * @param categories Item categories that receive the modifier
+     * @param slots Equipment slots the modifier is limited to, or null for any
+     * @param amount Flat amount
+     * @param perMultiplier Amount per point of rarity multiplier above 1
+     * @param ofBaseDamage Scale by the material's base attack damage
+     */
+    public record ModifierRule(Attribute attribute, Set<ItemCategory> categories, Set<EquipmentSlot> slots,
+                               double amount, double perMultiplier, boolean ofBaseDamage) {
+        
+        /**
+         * Name of the modifier on items, e.g. {@code rarityx_attack_damage}
+         * @return Modifier name
+         */
+        public String modifierName() {
+            String key = attribute.name().toLowerCase(Locale.ROOT);
+            return BuffManager.MODIFIER_PREFIX + (key.startsWith("generic_") ? key.substring(8) : key);
+        }
+    }
+    
+    /**
+     * One chance at a bonus enchantment from the item category's pool
+     * @param chance Chance from 0 to 1; 1 always succeeds without drawing a random number
+     * @param maxLevel Highest level that can be rolled, capped by the enchantment's own maximum
+     */
+    public record EnchantRoll(double chance, int maxLevel) {
+    }
+}
\ No newline at end of file
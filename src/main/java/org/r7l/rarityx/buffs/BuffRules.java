@@ -0,0 +1,155 @@
+package org.r7l.rarityx.buffs;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.r7l.rarityx.config.ConfigManager;
+import org.r7l.rarityx.config.PluginSettings;
+import org.r7l.rarityx.items.ItemCategory;
+import org.r7l.rarityx.rarity.Rarity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Buff profiles compiled into an immutable table indexed by
+ * [category ordinal][rarity id].
+ * <p>
+ * Each cell holds only the modifier rules, lore flag and enchantment rolls
+ * that apply to that category and rarity, so building templates and rolling
+ * enchantments never match names or filter rules. The active table is
+ * published through a volatile reference and rebuilt on {@code /rarityx reload},
+ * after the rarity registry.
+ * 
+ * @author R7LRod
+ */
+public final class BuffRules {
+    
+    private static final Rule EMPTY_RULE = new Rule(new BuffProfile.ModifierRule[0], false,
+        new BuffProfile.EnchantRoll[0]);
+    
+    private static volatile BuffRules current = new BuffRules(new BuffProfile[0], new Features(true, true, true));
+    
+    private final BuffProfile[] profiles;
+    private final Rule[][] rules;
+    
+    private BuffRules(BuffProfile[] profiles, Features features) {
+        ItemCategory[] categories = ItemCategory.values();
+        this.profiles = profiles;
+        this.rules = new Rule[categories.length][profiles.length];
+        
+        for (ItemCategory category : categories) {
+            for (int id = 0; id < profiles.length; id++) {
+                rules[category.ordinal()][id] = compile(profiles[id], category, features);
+            }
+        }
+    }
+    
+    /**
+     * Get the active rule table
+     * @return Current rules
+     */
+    public static BuffRules current() {
+        return current;
+    }
+    
+    /**
+     * Publish a new rule table
+     * @param rules The rules to activate
+     */
+    public static void install(BuffRules rules) {
+        current = rules;
+    }
+    
+    /**
+     * Compile the {@code buff-profiles} config section for the active rarities.
+     * Buff kinds switched off in the {@code buffs} section are left out of the
+     * table, so they cost nothing when items are buffed.
+     * @param config The configuration manager
+     * @param logger Logger for invalid entries
+     * @return New rules
+     */
+    public static BuffRules load(ConfigManager config, Logger logger) {
+        Map<String, BuffProfile> byName = new HashMap<>();
+        for (Map.Entry<String, ConfigurationSection> entry : config.getBuffProfiles().entrySet()) {
+            byName.put(entry.getKey().toLowerCase(Locale.ROOT), BuffProfile.load(entry.getKey(), entry.getValue(), logger));
+        }
+        
+        List<Rarity> rarities = Rarity.getAll();
+        BuffProfile[] profiles = new BuffProfile[rarities.size()];
+        for (Rarity rarity : rarities) {
+            BuffProfile profile = byName.get(rarity.getBuffProfile());
+            if (profile == null) {
+                logger.warning("Rarity " + rarity.getKey() + " uses an unknown buff profile: "
+                    + rarity.getBuffProfile() + " (expected one of " + byName.keySet() + ")");
+                profile = BuffProfile.EMPTY;
+            }
+            profiles[rarity.getId()] = profile;
+        }
+        
+        PluginSettings settings = config.getSettings();
+        return new BuffRules(profiles, new Features(settings.enableAttributeModifiers(),
+            settings.enableEnchantmentBonuses(), settings.enableSpecialEffects()));
+    }
+    
+    /**
+     * Get the buff profile of a rarity
+     * @param rarity The rarity
+     * @return The profile, {@link BuffProfile#EMPTY} if the rarity is not in this table
+     */
+    public BuffProfile getProfile(Rarity rarity) {
+        int id = rarity.getId();
+        return id < profiles.length ? profiles[id] : BuffProfile.EMPTY;
+    }
+    
+    /**
+     * Get the compiled rules for a category and rarity
+     * @param category The item category
+     * @param rarity The rarity
+     * @return The rules, empty if the rarity is not in this table
+     */
+    public Rule get(ItemCategory category, Rarity rarity) {
+        Rule[] row = rules[category.ordinal()];
+        int id = rarity.getId();
+        return id < row.length ? row[id] : EMPTY_RULE;
+    }
+    
+    private static Rule compile(BuffProfile profile, ItemCategory category, Features features) {
+        if (!category.isEligible()) {
+            return EMPTY_RULE;
+        }
+        
+        List<BuffProfile.ModifierRule> modifiers = new ArrayList<>();
+        if (features.attributeModifiers()) {
+            for (BuffProfile.ModifierRule modifier : profile.getModifiers()) {
+                if (modifier.categories().contains(category)) {
+                    modifiers.add(modifier);
+                }
+            }
+        }
+        
+        // The mining speed line advertises the block-break bonus, a special effect
+        return new Rule(modifiers.toArray(new BuffProfile.ModifierRule[0]),
+            features.specialEffects() && profile.hasMiningSpeedLore(category),
+            features.enchantmentBonuses() ? profile.getEnchantments().toArray(new BuffProfile.EnchantRoll[0])
+                : EMPTY_RULE.enchantRolls());
+    }
+    
+    /**
+     * The {@code buffs.enable-*} switches
+     */
+    private record Features(boolean attributeModifiers, boolean enchantmentBonuses, boolean specialEffects) {
+    }
+    
+    /**
+     * The buffs one category receives at one rarity
+     * @param modifiers Modifier rules for the category
+     * @param miningSpeedLore Whether the mining speed lore line is added
+     * @param enchantRolls Bonus enchantment rolls
+     */
+    public record Rule(BuffProfile.ModifierRule[] modifiers, boolean miningSpeedLore,
+                       BuffProfile.EnchantRoll[] enchantRolls) {
+    }
+}
\ No newline at end of file
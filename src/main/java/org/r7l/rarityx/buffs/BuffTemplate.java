@@ -0,0 +1,105 @@
+package org.r7l.rarityx.buffs;
+
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prebuilt buffs for one (Material, Rarity) pair.
+ * <p>
+ * Modifiers use deterministic UUIDs and are shared between all items using
+ * the template, so applying buffs only copies references into the meta.
+ * 
+ * @author R7LRod
+ */
+public final class BuffTemplate {
+    
+    private final Attribute[] attributes;
+    private final AttributeModifier[] modifiers;
+    private final List<String> lore;
+    private final Enchantment[] enchantments;
+    private final BuffProfile.EnchantRoll[] enchantRolls;
+    
+    BuffTemplate(List<Attribute> attributes, List<AttributeModifier> modifiers,
+                 List<String> lore, Enchantment[] enchantments, BuffProfile.EnchantRoll[] enchantRolls) {
+        this.attributes = attributes.toArray(new Attribute[0]);
+        this.modifiers = modifiers.toArray(new AttributeModifier[0]);
+        this.lore = List.copyOf(lore);
+        this.enchantments = enchantments;
+        this.enchantRolls = enchantRolls;
+    }
+    
+    /**
+     * Copy the template's modifiers and lore into an item meta.
+     * Existing RarityX buffs must have been stripped first.
+     * @param meta The meta to modify
+     */
+    void applyTo(ItemMeta meta) {
+        for (int i = 0; i < modifiers.length; i++) {
+            meta.addAttributeModifier(attributes[i], modifiers[i]);
+        }
+        
+        if (!lore.isEmpty()) {
+            List<String> itemLore = meta.getLore();
+            if (itemLore == null) {
+                itemLore = new ArrayList<>(lore.size());
+            }
+            itemLore.addAll(lore);
+            meta.setLore(itemLore);
+        }
+    }
+    
+    /**
+     * Get the number of attribute modifiers
+     * @return Modifier count
+     */
+    public int getModifierCount() {
+        return modifiers.length;
+    }
+    
+    /**
+     * Get the attribute of a modifier
+     * @param index Modifier index
+     * @return The attribute
+     */
+    public Attribute getAttribute(int index) {
+        return attributes[index];
+    }
+    
+    /**
+     * Get a modifier
+     * @param index Modifier index
+     * @return The modifier
+     */
+    public AttributeModifier getModifier(int index) {
+        return modifiers[index];
+    }
+    
+    /**
+     * Get the lore lines added by the buffs
+     * @return Unmodifiable lore
+     */
+    public List<String> getLore() {
+        return lore;
+    }
+    
+    /**
+     * Get the enchantments that can be rolled for this item
+     * @return Enchantment pool (shared, do not modify)
+     */
+    public Enchantment[] getEnchantments() {
+        return enchantments;
+    }
+    
+    /**
+     * Get the bonus enchantment rolls of the rarity's buff profile
+     * @return Rolls (shared, do not modify)
+     */
+    public BuffProfile.EnchantRoll[] getEnchantRolls() {
+        return enchantRolls;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.r7l.rarityx.buffs;
+
+import org.bukkit.Material;
+import org.r7l.rarityx.rarity.Rarity;
+
+/**
+ * Immutable table of prebuilt buffs indexed by [material ordinal][rarity id].
+ * <p>
+ * {@link BuffManager} publishes a new table on every rebuild. Callers that
+ * must see one configuration for a long run, such as a world migration,
+ * keep the table they started with.
+ * 
+ * @author R7LRod
+ */
+public final class BuffTemplates {
+    
+    static final BuffTemplates EMPTY = new BuffTemplates(new BuffTemplate[0][]);
+    
+    // Null rows for ineligible materials
+    private final BuffTemplate[][] table;
+    
+    BuffTemplates(BuffTemplate[][] table) {
+        this.table = table;
+    }
+    
+    /**
+     * Look up the prebuilt buffs for an item type and rarity
+     * @param material The item type
+     * @param rarity The rarity
+     * @return The template, or null if the material gets no buffs
+     */
+    public BuffTemplate get(Material material, Rarity rarity) {
+        int index = material.ordinal();
+        if (index >= table.length || table[index] == null || rarity.getId() >= table[index].length) {
+            return null;
+        }
+        return table[index][rarity.getId()];
+    }
+}
\ No newline at end of file
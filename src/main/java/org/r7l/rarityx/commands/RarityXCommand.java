@@ -8,11 +8,16 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.r7l.rarityx.RarityX;
-import org.r7l.rarityx.buffs.BuffManager;
 import org.r7l.rarityx.config.ConfigManager;
+import org.r7l.rarityx.metrics.HitRatio;
+import org.r7l.rarityx.metrics.Metrics;
+import org.r7l.rarityx.metrics.Timer;
+import org.r7l.rarityx.metrics.TimerSnapshot;
+import org.r7l.rarityx.migrate.WorldMigration;
 import org.r7l.rarityx.rarity.Rarity;
 import org.r7l.rarityx.rarity.RarityManager;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -62,6 +67,12 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
             case "remove":
                 handleRemove(sender);
                 break;
+            case "stats":
+                handleStats(sender, args);
+                break;
+            case "migrate":
+                handleMigrate(sender, args);
+                break;
             default:
                 sender.sendMessage(configManager.getFormattedMessage("invalid-command"));
                 sendHelp(sender);
@@ -82,10 +93,20 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage("§e/rarityx set <rarity> §7- Set rarity of item in hand");
             sender.sendMessage("§e/rarityx give <player> <rarity> §7- Give player item with rarity");
             sender.sendMessage("§e/rarityx remove §7- Remove rarity from item in hand");
+            sender.sendMessage("§e/rarityx stats [window|reset] §7- Show handler timings");
+            sender.sendMessage("§e/rarityx migrate <start|dry-run|schedule|status|cancel> [fresh] §7- Assign rarities in stored worlds");
         }
         
         sender.sendMessage("§e/rarityx info §7- Show info about item in hand");
-        sender.sendMessage("§7Rarities: §fCommon, §aUncommon, §9Rare, §5Epic, §6Mythic");
+        
+        StringBuilder rarities = new StringBuilder("§7Rarities: ");
+        for (Rarity rarity : Rarity.getAll()) {
+            if (rarity.getId() > 0) {
+                rarities.append("§7, ");
+            }
+            rarities.append(rarity.getFormattedName());
+        }
+        sender.sendMessage(rarities.toString());
     }
     
     /**
@@ -97,6 +118,14 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
             return;
         }
         
+        // Migration workers must see one configuration for the whole run
+        WorldMigration migration = plugin.getMigration();
+        if (migration != null && migration.isRunning()) {
+            sender.sendMessage(configManager.getPrefix()
+                + "§cA migration is running! Wait for it to finish or cancel it with /rarityx migrate cancel.");
+            return;
+        }
+        
         try {
             configManager.reloadConfig();
             sender.sendMessage(configManager.getFormattedMessage("config-reloaded"));
@@ -134,14 +163,14 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
         
         Rarity rarity = Rarity.fromString(args[1]);
         if (rarity == null) {
-            sender.sendMessage(configManager.getFormattedMessage("invalid-rarity"));
+            sender.sendMessage(configManager.getFormattedMessage("invalid-rarity", "rarities", listRarities()));
             return;
         }
         
-        ItemStack rarityItem = rarityManager.setRarity(item, rarity);
-        rarityItem = BuffManager.applyBuffs(rarityItem, rarity);
+        ItemStack rarityItem = rarityManager.applyRarity(item, rarity);
         
         player.getInventory().setItemInMainHand(rarityItem);
+        rarityManager.getHeldRarityCache().invalidate(player.getUniqueId());
         sender.sendMessage(configManager.getFormattedMessage("rarity-set", 
             "rarity", rarity.getFormattedName()));
     }
@@ -193,16 +222,16 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
         
         Rarity rarity = Rarity.fromString(args[2]);
         if (rarity == null) {
-            sender.sendMessage(configManager.getFormattedMessage("invalid-rarity"));
+            sender.sendMessage(configManager.getFormattedMessage("invalid-rarity", "rarities", listRarities()));
             return;
         }
         
         // Give a diamond sword with the specified rarity as example
         ItemStack item = new ItemStack(org.bukkit.Material.DIAMOND_SWORD);
-        item = rarityManager.setRarity(item, rarity);
-        item = BuffManager.applyBuffs(item, rarity);
+        item = rarityManager.applyRarity(item, rarity);
         
         target.getInventory().addItem(item);
+        rarityManager.getHeldRarityCache().invalidate(target.getUniqueId());
         sender.sendMessage(configManager.getPrefix() + "§aGave " + target.getName() + 
             " a " + rarity.getFormattedName() + " §aDiamond Sword!");
         target.sendMessage(configManager.getPrefix() + "§aYou received a " + 
@@ -238,9 +267,157 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
         
         ItemStack cleanItem = rarityManager.removeRarity(item);
         player.getInventory().setItemInMainHand(cleanItem);
+        rarityManager.getHeldRarityCache().invalidate(player.getUniqueId());
         sender.sendMessage(configManager.getPrefix() + "§aRarity removed from item!");
     }
     
+    /**
+     * Handle stats command
+     */
+    private void handleStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("rarityx.admin")) {
+            sender.sendMessage(configManager.getFormattedMessage("no-permission"));
+            return;
+        }
+        
+        String view = args.length > 1 ? args[1].toLowerCase() : "total";
+        if (view.equals("reset")) {
+            Metrics.reset();
+            sender.sendMessage(configManager.getPrefix() + "§aStatistics reset!");
+            return;
+        }
+        
+        boolean window = view.equals("window");
+        if (!window && !view.equals("total")) {
+            sender.sendMessage(configManager.getPrefix() + "§cUsage: /rarityx stats [window|reset]");
+            return;
+        }
+        
+        sender.sendMessage("§6=== RarityX Stats (" + (window
+            ? "last " + configManager.getSettings().metricsWindowSeconds() + "s"
+            : "since reset") + ") ===");
+        if (!configManager.getSettings().metricsEnabled()) {
+            sender.sendMessage("§cMetrics are disabled (performance.metrics)");
+        }
+        
+        for (Timer timer : Metrics.getTimers()) {
+            TimerSnapshot stats = window ? timer.lastWindow() : timer.snapshot();
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            
+            String line = "§e" + timer.getName() + " §7" + stats.getCount() + " calls, total §f"
+                + formatNanos(stats.getTotalNanos()) + "§7, p50 §f" + formatNanos(stats.getPercentileNanos(50))
+                + "§7, p99 §f" + formatNanos(stats.getPercentileNanos(99))
+                + "§7, max §f" + formatNanos(stats.getMaxNanos());
+            if (Metrics.isTrackingAllocations() && stats.getAllocatedBytesPerCall() > 0) {
+                line += "§7, §f" + stats.getAllocatedBytesPerCall() + " B§7/call";
+            }
+            sender.sendMessage(line);
+        }
+        
+        for (HitRatio ratio : Metrics.getHitRatios()) {
+            long lookups = window ? ratio.getLastWindowLookups() : ratio.getLookups();
+            double hitRatio = window ? ratio.getLastWindowRatio() : ratio.getRatio();
+            sender.sendMessage("§e" + ratio.getName() + " §7" + lookups + " lookups, hit ratio §f"
+                + String.format("%.1f%%", hitRatio * 100));
+        }
+    }
+    
+    /**
+     * Handle migrate command
+     */
+    private void handleMigrate(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("rarityx.admin")) {
+            sender.sendMessage(configManager.getFormattedMessage("no-permission"));
+            return;
+        }
+        
+        String action = args.length > 1 ? args[1].toLowerCase() : "status";
+        WorldMigration migration = plugin.getMigration();
+        boolean running = migration != null && migration.isRunning();
+        
+        switch (action) {
+            case "start":
+            case "dry-run":
+                if (running) {
+                    sender.sendMessage(configManager.getPrefix() + "§cA migration is already running!");
+                    return;
+                }
+                
+                boolean fresh = args.length > 2 && args[2].equalsIgnoreCase("fresh");
+                try {
+                    plugin.setMigration(WorldMigration.start(plugin, action.equals("dry-run"), fresh));
+                } catch (IOException e) {
+                    sender.sendMessage(configManager.getPrefix() + "§cError starting migration: " + e.getMessage());
+                    return;
+                }
+                sender.sendMessage(configManager.getPrefix() + "§aMigration started, progress is logged to the console.");
+                break;
+            case "schedule":
+                // Loaded worlds can only be migrated before they load, on the next start
+                List<String> options = new ArrayList<>();
+                for (int i = 2; i < args.length; i++) {
+                    options.add(args[i].toLowerCase());
+                }
+                try {
+                    WorldMigration.schedule(plugin, options.contains("dry-run"), options.contains("fresh"));
+                } catch (IOException e) {
+                    sender.sendMessage(configManager.getPrefix() + "§cError scheduling migration: " + e.getMessage());
+                    return;
+                }
+                sender.sendMessage(configManager.getPrefix()
+                    + "§aMigration scheduled, it runs on the next start before any world loads.");
+                break;
+            case "status":
+                if (WorldMigration.isScheduled(plugin)) {
+                    sender.sendMessage(configManager.getPrefix() + "§7A migration is scheduled for the next start.");
+                }
+                if (migration == null) {
+                    sender.sendMessage(configManager.getPrefix() + "§7No migration has been run.");
+                    return;
+                }
+                sender.sendMessage(configManager.getPrefix() + "§7Migration "
+                    + (running ? "running" : "finished") + (migration.isDryRun() ? " (dry run)" : "")
+                    + ": §f" + migration.describe());
+                break;
+            case "cancel":
+                if (running) {
+                    migration.cancel();
+                    sender.sendMessage(configManager.getPrefix() + "§aMigration cancelled, it will resume from the checkpoint.");
+                    return;
+                }
+                try {
+                    if (WorldMigration.unschedule(plugin)) {
+                        sender.sendMessage(configManager.getPrefix() + "§aScheduled migration removed.");
+                        return;
+                    }
+                } catch (IOException e) {
+                    sender.sendMessage(configManager.getPrefix() + "§cError removing scheduled migration: " + e.getMessage());
+                    return;
+                }
+                sender.sendMessage(configManager.getPrefix() + "§cNo migration is running or scheduled!");
+                break;
+            default:
+                sender.sendMessage(configManager.getPrefix()
+                    + "§cUsage: /rarityx migrate <start|dry-run|schedule|status|cancel> [fresh]");
+        }
+    }
+    
+    /**
+     * Format a duration with a readable unit
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000L) {
+            return String.format("%.1fµs", nanos / 1_000.0);
+        } else if (nanos < 1_000_000_000L) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.2fs", nanos / 1_000_000_000.0);
+    }
+    
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
@@ -249,7 +426,7 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
             List<String> subCommands = Arrays.asList("help", "info");
             
             if (sender.hasPermission("rarityx.admin")) {
-                subCommands = Arrays.asList("help", "reload", "set", "info", "give", "remove");
+                subCommands = Arrays.asList("help", "reload", "set", "info", "give", "remove", "stats", "migrate");
             }
             
             for (String subCommand : subCommands) {
@@ -260,10 +437,17 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
         } else if (args.length == 2 && sender.hasPermission("rarityx.admin")) {
             if (args[0].equalsIgnoreCase("set")) {
                 // Tab complete rarities for set command
-                for (Rarity rarity : Rarity.values()) {
-                    if (rarity.name().toLowerCase().startsWith(args[1].toLowerCase()) ||
-                        rarity.getDisplayName().toLowerCase().startsWith(args[1].toLowerCase())) {
-                        completions.add(rarity.getDisplayName());
+                completeRarities(args[1], completions);
+            } else if (args[0].equalsIgnoreCase("stats")) {
+                for (String view : Arrays.asList("window", "reset")) {
+                    if (view.startsWith(args[1].toLowerCase())) {
+                        completions.add(view);
+                    }
+                }
+            } else if (args[0].equalsIgnoreCase("migrate")) {
+                for (String action : Arrays.asList("start", "dry-run", "schedule", "status", "cancel")) {
+                    if (action.startsWith(args[1].toLowerCase())) {
+                        completions.add(action);
                     }
                 }
             } else if (args[0].equalsIgnoreCase("give")) {
@@ -276,14 +460,45 @@ public class RarityXCommand implements CommandExecutor, TabCompleter {
             }
         } else if (args.length == 3 && args[0].equalsIgnoreCase("give") && sender.hasPermission("rarityx.admin")) {
             // Tab complete rarities for give command
-            for (Rarity rarity : Rarity.values()) {
-                if (rarity.name().toLowerCase().startsWith(args[2].toLowerCase()) ||
-                    rarity.getDisplayName().toLowerCase().startsWith(args[2].toLowerCase())) {
-                    completions.add(rarity.getDisplayName());
+            completeRarities(args[2], completions);
+        } else if (args.length >= 3 && args[0].equalsIgnoreCase("migrate") && sender.hasPermission("rarityx.admin")) {
+            List<String> options = args[1].equalsIgnoreCase("schedule")
+                ? Arrays.asList("fresh", "dry-run")
+                : args.length == 3 ? Arrays.asList("fresh") : Arrays.asList();
+            for (String option : options) {
+                if (option.startsWith(args[args.length - 1].toLowerCase())) {
+                    completions.add(option);
                 }
             }
         }
         
         return completions;
     }
+    
+    /**
+     * Add rarity display names matching a typed prefix (case-insensitive).
+     * Names containing spaces are completed as the rarity's key instead.
+     */
+    private void completeRarities(String prefix, List<String> completions) {
+        for (Rarity rarity : Rarity.getAll()) {
+            if (rarity.getKey().regionMatches(true, 0, prefix, 0, prefix.length()) ||
+                rarity.getDisplayName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                completions.add(rarity.getDisplayName().indexOf(' ') < 0 ? rarity.getDisplayName() : rarity.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Comma-separated display names of all configured rarities
+     */
+    private String listRarities() {
+        StringBuilder names = new StringBuilder();
+        for (Rarity rarity : Rarity.getAll()) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(rarity.getDisplayName());
+        }
+        return names.toString();
+    }
 }
\ No newline at end of file
@@ -1,7 +1,19 @@
 package org.r7l.rarityx.config;
 
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.rarity.Rarity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Manages plugin configuration
@@ -11,10 +23,13 @@ import org.r7l.rarityx.RarityX;
 public class ConfigManager {
     
     private final RarityX plugin;
+    private final List<ReloadListener> reloadListeners;
     private FileConfiguration config;
+    private volatile PluginSettings settings;
     
     public ConfigManager(RarityX plugin) {
         this.plugin = plugin;
+        this.reloadListeners = new ArrayList<>();
     }
     
     /**
@@ -27,14 +42,42 @@ public class ConfigManager {
         
         // Set default values if they don't exist
         setDefaults();
+        
+        settings = buildSettings();
     }
     
     /**
-     * Reload configuration from file
+     * Reload configuration from file and notify reload listeners
      */
     public void reloadConfig() {
         plugin.reloadConfig();
         config = plugin.getConfig();
+        settings = buildSettings();
+        
+        for (ReloadListener listener : reloadListeners) {
+            try {
+                listener.onReload(this);
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Error while applying reloaded configuration", e);
+            }
+        }
+    }
+    
+    /**
+     * Register a callback run after every {@link #reloadConfig()}.
+     * Listeners run in registration order on the thread performing the reload.
+     * @param listener The listener to add
+     */
+    public void addReloadListener(ReloadListener listener) {
+        reloadListeners.add(listener);
+    }
+    
+    /**
+     * Get the current settings snapshot
+     * @return Immutable plugin settings
+     */
+    public PluginSettings getSettings() {
+        return settings;
     }
     
     /**
@@ -51,8 +94,13 @@ public class ConfigManager {
         // General settings
         config.addDefault("general.assign-rarity-on-craft", true);
         config.addDefault("general.assign-rarity-on-join", false);
+        config.addDefault("general.join-backfill-revision", 1);
+        config.addDefault("general.assign-rarity-on-chunk-load", false);
         config.addDefault("general.assign-rarity-on-drop", false);
-        config.addDefault("general.prevent-different-rarity-stacking", true);
+        config.addDefault("general.assign-rarity-on-loot", true);
+        config.addDefault("general.assign-rarity-on-mob-drop", true);
+        config.addDefault("general.assign-rarity-on-fish", true);
+        config.addDefault("general.assign-rarity-on-trade", true);
         
         // Rarity weights
         config.addDefault("rarity-weights.common", 60.0);
@@ -77,13 +125,27 @@ public class ConfigManager {
         config.addDefault("valuable-materials.enabled", true);
         config.addDefault("valuable-materials.diamond-multiplier", 2.0);
         config.addDefault("valuable-materials.netherite-multiplier", 3.0);
+        for (Rarity rarity : Rarity.getAll()) {
+            config.addDefault("valuable-materials.rarity-boosts." + rarity.getKey(),
+                rarity.getDefaultValuableBoost());
+        }
+        
+        // Item classification overrides
+        config.addDefault("items.exclude", new ArrayList<String>());
+        
+        // Performance tuning
+        config.addDefault("performance.rarity-cache-size", 1024);
+        config.addDefault("performance.metrics", true);
+        config.addDefault("performance.metrics-allocations", false);
+        config.addDefault("performance.metrics-window", 60);
+        config.addDefault("performance.tick-budget-ms", 2.0);
         
         // Messages
         config.addDefault("messages.prefix", "§8[§6RarityX§8]§r ");
         config.addDefault("messages.no-permission", "§cYou don't have permission to use this command!");
         config.addDefault("messages.config-reloaded", "§aConfiguration reloaded successfully!");
         config.addDefault("messages.player-not-found", "§cPlayer not found!");
-        config.addDefault("messages.invalid-rarity", "§cInvalid rarity! Valid rarities: Common, Uncommon, Rare, Epic, Mythic");
+        config.addDefault("messages.invalid-rarity", "§cInvalid rarity! Valid rarities: {rarities}");
         config.addDefault("messages.rarity-set", "§aRarity set to §r{rarity}§a for item in hand!");
         config.addDefault("messages.no-item-in-hand", "§cYou must be holding an item!");
         config.addDefault("messages.item-info", "§7Item: §f{item} §7| Rarity: {rarity}");
@@ -92,21 +154,161 @@ public class ConfigManager {
         saveConfig();
     }
     
+    /**
+     * Materialize the settings read on hot paths into an immutable snapshot
+     */
+    private PluginSettings buildSettings() {
+        Map<String, String> messages = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                messages.put(key, section.getString(key));
+            }
+        }
+        
+        return new PluginSettings(
+            config.getBoolean("general.assign-rarity-on-craft", true),
+            config.getBoolean("general.assign-rarity-on-join", false),
+            config.getInt("general.join-backfill-revision", 1),
+            config.getBoolean("general.assign-rarity-on-chunk-load", false),
+            config.getBoolean("general.assign-rarity-on-drop", false),
+            config.getBoolean("general.assign-rarity-on-loot", true),
+            config.getBoolean("general.assign-rarity-on-mob-drop", true),
+            config.getBoolean("general.assign-rarity-on-fish", true),
+            config.getBoolean("general.assign-rarity-on-trade", true),
+            config.getBoolean("buffs.enable-attribute-modifiers", true),
+            config.getBoolean("buffs.enable-enchantment-bonuses", true),
+            config.getBoolean("buffs.enable-special-effects", true),
+            config.getInt("performance.rarity-cache-size", 1024),
+            config.getBoolean("performance.metrics", true),
+            config.getBoolean("performance.metrics-allocations", false),
+            Math.max(1, config.getInt("performance.metrics-window", 60)),
+            Math.max(0.05, config.getDouble("performance.tick-budget-ms", 2.0)),
+            config.getString("messages.prefix", "§8[§6RarityX§8]§r "),
+            Collections.unmodifiableMap(messages)
+        );
+    }
+    
     // General settings getters
     public boolean isAssignRarityOnCraft() {
-        return config.getBoolean("general.assign-rarity-on-craft", true);
+        return settings.assignRarityOnCraft();
     }
     
     public boolean isAssignRarityOnJoin() {
-        return config.getBoolean("general.assign-rarity-on-join", false);
+        return settings.assignRarityOnJoin();
+    }
+    
+    public boolean isAssignRarityOnChunkLoad() {
+        return settings.assignRarityOnChunkLoad();
     }
     
     public boolean isAssignRarityOnDrop() {
-        return config.getBoolean("general.assign-rarity-on-drop", false);
+        return settings.assignRarityOnDrop();
+    }
+    
+    public boolean isAssignRarityOnLoot() {
+        return settings.assignRarityOnLoot();
     }
     
-    public boolean isPreventDifferentRarityStacking() {
-        return config.getBoolean("general.prevent-different-rarity-stacking", true);
+    public boolean isAssignRarityOnMobDrop() {
+        return settings.assignRarityOnMobDrop();
+    }
+    
+    public boolean isAssignRarityOnFish() {
+        return settings.assignRarityOnFish();
+    }
+    
+    public boolean isAssignRarityOnTrade() {
+        return settings.assignRarityOnTrade();
+    }
+    
+    // Rarity tier getters
+    
+    /**
+     * Read the tier definitions from the {@code rarities} section, in config order.
+     * Built-in tiers fall back to their built-in values for any missing field
+     * and always keep their built-in code; custom tiers must declare a code
+     * from 5 to 255. Invalid tiers are skipped. Built-in tiers missing from
+     * the section are added after the others with their built-in values, so
+     * items already stored with their codes keep their rarity.
+     * A weight, multiplier or valuable boost set here takes precedence over
+     * the {@code rarity-weights}, {@code rarity-multipliers} and
+     * {@code valuable-materials.rarity-boosts} sections.
+     * @param logger Logger for invalid entries
+     * @return Tiers with dense ids, always including the built-in tiers
+     */
+    public List<Rarity> getRarityTiers(Logger logger) {
+        ConfigurationSection section = config.getConfigurationSection("rarities");
+        if (section == null) {
+            return Rarity.getDefaults();
+        }
+        
+        List<Rarity> rarities = new ArrayList<>();
+        boolean[] usedCodes = new boolean[256];
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection tier = section.getConfigurationSection(key);
+            if (tier == null) {
+                logger.warning("Rarity " + key + " must be a section");
+                continue;
+            }
+            
+            Rarity builtIn = Rarity.getDefault(key);
+            int code;
+            if (builtIn != null) {
+                code = builtIn.getCode();
+                if (tier.isInt("code") && tier.getInt("code") != code) {
+                    logger.warning("Rarity " + key + " is built in and keeps its code " + code);
+                }
+            } else if (!tier.isInt("code")) {
+                logger.warning("Rarity " + key + " has no code; custom rarities need a unique code from 5 to 255");
+                continue;
+            } else {
+                code = tier.getInt("code");
+                if (code < Rarity.getDefaults().size() || code > 255 || usedCodes[code]) {
+                    logger.warning("Rarity " + key + " has an invalid or duplicate code: " + code
+                        + "; custom rarities need a unique code from 5 to 255");
+                    continue;
+                }
+            }
+            
+            ChatColor color = parseColor(tier.getString("color"), builtIn != null ? builtIn.getColor() : ChatColor.WHITE, logger);
+            String buffProfile = tier.getString("buff-profile", builtIn != null ? builtIn.getBuffProfile() : "common");
+            usedCodes[code] = true;
+            rarities.add(Rarity.define(rarities.size(), key, code,
+                tier.getString("display-name", builtIn != null ? builtIn.getDisplayName() : key),
+                color,
+                tier.getDouble("weight", builtIn != null ? builtIn.getDefaultWeight() : 0.0),
+                tier.getDouble("multiplier", builtIn != null ? builtIn.getDefaultMultiplier() : 1.0),
+                tier.getDouble("valuable-boost", builtIn != null ? builtIn.getDefaultValuableBoost() : 1.0),
+                buffProfile,
+                tier.getString("lore", Rarity.DEFAULT_LORE_FORMAT)));
+        }
+        
+        // Items stored with a built-in code must never lose their rarity and be rolled again
+        for (Rarity builtIn : Rarity.getDefaults()) {
+            if (usedCodes[builtIn.getCode() & 0xFF]) {
+                continue;
+            }
+            logger.warning("Built-in rarity " + builtIn.getKey() + " is missing from the rarities section;"
+                + " it is kept with its built-in values. Set its weight to 0 to stop rolling it");
+            rarities.add(Rarity.define(rarities.size(), builtIn.getKey(), builtIn.getCode(), builtIn.getDisplayName(),
+                builtIn.getColor(), builtIn.getDefaultWeight(), builtIn.getDefaultMultiplier(),
+                builtIn.getDefaultValuableBoost(), builtIn.getBuffProfile(), Rarity.DEFAULT_LORE_FORMAT));
+        }
+        
+        return rarities;
+    }
+    
+    private static ChatColor parseColor(String name, ChatColor fallback, Logger logger) {
+        if (name == null) {
+            return fallback;
+        }
+        try {
+            return ChatColor.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warning("Unknown rarity color: " + name);
+            return fallback;
+        }
     }
     
     // Rarity weights getters
@@ -130,6 +332,11 @@ public class ConfigManager {
         return config.getDouble("rarity-weights.mythic", 1.0);
     }
     
+    public double getRarityWeight(Rarity rarity) {
+        return config.getDouble("rarities." + rarity.getKey() + ".weight",
+            config.getDouble("rarity-weights." + rarity.getKey(), rarity.getDefaultWeight()));
+    }
+    
     // Multipliers getters
     public double getCommonMultiplier() {
         return config.getDouble("rarity-multipliers.common", 1.0);
@@ -151,17 +358,41 @@ public class ConfigManager {
         return config.getDouble("rarity-multipliers.mythic", 2.0);
     }
     
+    public double getRarityMultiplier(Rarity rarity) {
+        return config.getDouble("rarities." + rarity.getKey() + ".multiplier",
+            config.getDouble("rarity-multipliers." + rarity.getKey(), rarity.getDefaultMultiplier()));
+    }
+    
+    // Rarity aliases getters
+    public List<String> getRarityAliases(Rarity rarity) {
+        return config.getStringList("rarity-aliases." + rarity.getKey());
+    }
+    
     // Buff settings getters
     public boolean isEnableAttributeModifiers() {
-        return config.getBoolean("buffs.enable-attribute-modifiers", true);
+        return settings.enableAttributeModifiers();
     }
     
     public boolean isEnableEnchantmentBonuses() {
-        return config.getBoolean("buffs.enable-enchantment-bonuses", true);
+        return settings.enableEnchantmentBonuses();
     }
     
     public boolean isEnableSpecialEffects() {
-        return config.getBoolean("buffs.enable-special-effects", true);
+        return settings.enableSpecialEffects();
+    }
+    
+    public Map<String, ConfigurationSection> getBuffProfiles() {
+        Map<String, ConfigurationSection> profiles = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("buff-profiles");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                ConfigurationSection profile = section.getConfigurationSection(key);
+                if (profile != null) {
+                    profiles.put(key, profile);
+                }
+            }
+        }
+        return profiles;
     }
     
     // Valuable materials getters
@@ -177,17 +408,46 @@ public class ConfigManager {
         return config.getDouble("valuable-materials.netherite-multiplier", 3.0);
     }
     
+    public double getValuableRarityBoost(Rarity rarity) {
+        return config.getDouble("rarities." + rarity.getKey() + ".valuable-boost",
+            config.getDouble("valuable-materials.rarity-boosts." + rarity.getKey(), rarity.getDefaultValuableBoost()));
+    }
+    
+    // Item classification getters
+    public Map<String, String> getItemCategoryOverrides() {
+        Map<String, String> overrides = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("items.categories");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                overrides.put(key, section.getString(key));
+            }
+        }
+        return overrides;
+    }
+    
+    public List<String> getExcludedItems() {
+        return config.getStringList("items.exclude");
+    }
+    
+    // Performance getters
+    public int getRarityCacheSize() {
+        return settings.rarityCacheSize();
+    }
+    
     // Messages getters
     public String getPrefix() {
-        return config.getString("messages.prefix", "§8[§6RarityX§8]§r ");
+        return settings.prefix();
     }
     
     public String getMessage(String key) {
-        return config.getString("messages." + key, "§cMessage not found: " + key);
+        String message = settings.messages().get(key);
+        return message != null ? message : "§cMessage not found: " + key;
     }
     
     public String getFormattedMessage(String key, String... replacements) {
-        String message = getPrefix() + getMessage(key);
+        PluginSettings current = settings;
+        String message = current.messages().get(key);
+        message = current.prefix() + (message != null ? message : "§cMessage not found: " + key);
         
         // Replace placeholders
         for (int i = 0; i < replacements.length; i += 2) {
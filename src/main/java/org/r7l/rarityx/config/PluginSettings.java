@@ -0,0 +1,54 @@
+package org.r7l.rarityx.config;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the general plugin settings.
+ * <p>
+ * Built by {@link ConfigManager} whenever the configuration is loaded or
+ * reloaded, so event handlers read plain fields instead of walking YAML paths.
+ * 
+ * @param assignRarityOnCraft Assign rarities to crafted items
+ * @param assignRarityOnJoin Assign rarities to inventories on join
+ * @param joinBackfillRevision Admin-controlled revision; players stamped with an older one are rescanned
+ * @param assignRarityOnChunkLoad Assign rarities to container contents when chunks load
+ * @param assignRarityOnDrop Assign rarities to dropped items
+ * @param assignRarityOnLoot Assign rarities to generated loot
+ * @param assignRarityOnMobDrop Assign rarities to mob drops
+ * @param assignRarityOnFish Assign rarities to fishing catches
+ * @param assignRarityOnTrade Assign rarities to new villager trades
+ * @param enableAttributeModifiers Apply attribute modifier buffs
+ * @param enableEnchantmentBonuses Apply bonus enchantments
+ * @param enableSpecialEffects Enable combat special effects
+ * @param rarityCacheSize Capacity of the rarity lookup cache
+ * @param metricsEnabled Record handler and core call timings
+ * @param metricsAllocations Also record per-call allocations
+ * @param metricsWindowSeconds Length of a {@code /rarityx stats window} period
+ * @param tickBudgetMillis Main-thread time per tick for background item processing
+ * @param prefix Message prefix
+ * @param messages Message templates by key
+ * 
+ * @author R7LRod
+ */
+public record PluginSettings(
+    boolean assignRarityOnCraft,
+    boolean assignRarityOnJoin,
+    int joinBackfillRevision,
+    boolean assignRarityOnChunkLoad,
+    boolean assignRarityOnDrop,
+    boolean assignRarityOnLoot,
+    boolean assignRarityOnMobDrop,
+    boolean assignRarityOnFish,
+    boolean assignRarityOnTrade,
+    boolean enableAttributeModifiers,
+    boolean enableEnchantmentBonuses,
+    boolean enableSpecialEffects,
+    int rarityCacheSize,
+    boolean metricsEnabled,
+    boolean metricsAllocations,
+    int metricsWindowSeconds,
+    double tickBudgetMillis,
+    String prefix,
+    Map<String, String> messages
+) {
+}
\ No newline at end of file
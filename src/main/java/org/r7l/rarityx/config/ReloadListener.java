@@ -0,0 +1,17 @@
+package org.r7l.rarityx.config;
+
+/**
+ * Callback for subsystems that cache values derived from the configuration
+ * 
+ * @author R7LRod
+ */
+@FunctionalInterface
+public interface ReloadListener {
+    
+    /**
+     * Called once after the configuration has been (re)loaded and the
+     * {@link PluginSettings} snapshot has been rebuilt
+     * @param configManager The configuration manager
+     */
+    void onReload(ConfigManager configManager);
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package org.r7l.rarityx.items;
+
+/**
+ * Item categories used to decide rarity eligibility and buffs
+ * 
+ * @author R7LRod
+ */
+public enum ItemCategory {
+    /** Swords and tridents */
+    WEAPON(true, false, false),
+    /** Axes count as both weapons and tools */
+    AXE(true, true, false),
+    /** Pickaxes, shovels and hoes */
+    TOOL(false, true, false),
+    /** Bows and crossbows */
+    RANGED(true, false, false),
+    /** Helmets, chestplates, leggings and boots */
+    ARMOR(false, false, true),
+    /** Other eligible gear without category buffs (shield, elytra, fishing rod...) */
+    EQUIPMENT(false, false, false),
+    /** Not eligible for a rarity */
+    NONE(false, false, false);
+    
+    private final boolean weapon;
+    private final boolean tool;
+    private final boolean armor;
+    
+    ItemCategory(boolean weapon, boolean tool, boolean armor) {
+        this.weapon = weapon;
+        this.tool = tool;
+        this.armor = armor;
+    }
+    
+    /**
+     * Check if items of this category receive weapon buffs
+     * @return True for weapons
+     */
+    public boolean isWeapon() {
+        return weapon;
+    }
+    
+    /**
+     * Check if items of this category receive tool buffs
+     * @return True for tools
+     */
+    public boolean isTool() {
+        return tool;
+    }
+    
+    /**
+     * Check if items of this category receive armor buffs
+     * @return True for armor
+     */
+    public boolean isArmor() {
+        return armor;
+    }
+    
+    /**
+     * Check if items of this category can have a rarity
+     * @return True unless this is {@link #NONE}
+     */
+    public boolean isEligible() {
+        return this != NONE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package org.r7l.rarityx.items;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.EquipmentSlot;
+import org.r7l.rarityx.config.ConfigManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Precomputed material classification table.
+ * <p>
+ * Every material is classified once when the table is built, so hot-path
+ * checks are a single array read indexed by the material's ordinal. The
+ * active table is published through a volatile reference and rebuilt on
+ * {@code /rarityx reload}.
+ * 
+ * @author R7LRod
+ */
+public final class MaterialClassifier {
+    
+    private static volatile MaterialClassifier current = new MaterialClassifier(Map.of(), List.of(), null);
+    
+    private final ItemCategory[] categories;
+    private final EquipmentSlot[] armorSlots;
+    
+    private MaterialClassifier(Map<String, String> overrides, List<String> exclusions, Logger logger) {
+        Material[] materials = Material.values();
+        this.categories = new ItemCategory[materials.length];
+        this.armorSlots = new EquipmentSlot[materials.length];
+        
+        for (Material material : materials) {
+            categories[material.ordinal()] = classify(material);
+        }
+        
+        // Config overrides, applied after the built-in rules
+        for (Map.Entry<String, String> override : overrides.entrySet()) {
+            Material material = parseMaterial(override.getKey(), logger);
+            ItemCategory category = parseCategory(override.getValue(), logger);
+            if (material != null && category != null) {
+                categories[material.ordinal()] = category;
+            }
+        }
+        for (String name : exclusions) {
+            Material material = parseMaterial(name, logger);
+            if (material != null) {
+                categories[material.ordinal()] = ItemCategory.NONE;
+            }
+        }
+        
+        for (Material material : materials) {
+            if (categories[material.ordinal()].isArmor()) {
+                armorSlots[material.ordinal()] = slotOf(material);
+            }
+        }
+    }
+    
+    /**
+     * Get the active classifier
+     * @return Current classification table
+     */
+    public static MaterialClassifier current() {
+        return current;
+    }
+    
+    /**
+     * Publish a new classifier
+     * @param classifier The classifier to activate
+     */
+    public static void install(MaterialClassifier classifier) {
+        current = classifier;
+    }
+    
+    /**
+     * Build a classifier from the built-in rules and the {@code items} config section
+     * @param config The configuration manager
+     * @param logger Logger for invalid entries
+     * @return New classifier
+     */
+    public static MaterialClassifier load(ConfigManager config, Logger logger) {
+        return new MaterialClassifier(config.getItemCategoryOverrides(), config.getExcludedItems(), logger);
+    }
+    
+    /**
+     * Get the category of a material
+     * @param material The material
+     * @return The category, {@link ItemCategory#NONE} if not eligible
+     */
+    public ItemCategory getCategory(Material material) {
+        return material == null ? ItemCategory.NONE : categories[material.ordinal()];
+    }
+    
+    /**
+     * Check if a material can have a rarity
+     * @param material The material
+     * @return True if eligible
+     */
+    public boolean isEligible(Material material) {
+        return material != null && categories[material.ordinal()] != ItemCategory.NONE;
+    }
+    
+    /**
+     * Get the equipment slot of an armor piece
+     * @param material The material
+     * @return The slot, or null if the material is not armor
+     */
+    public EquipmentSlot getArmorSlot(Material material) {
+        return material == null ? null : armorSlots[material.ordinal()];
+    }
+    
+    /**
+     * Built-in classification by item name
+     */
+    @SuppressWarnings("deprecation")
+    private static ItemCategory classify(Material material) {
+        if (material.isLegacy()) {
+            return ItemCategory.NONE;
+        }
+        
+        switch (material) {
+            case TRIDENT:
+                return ItemCategory.WEAPON;
+            case BOW:
+            case CROSSBOW:
+                return ItemCategory.RANGED;
+            case SHIELD:
+            case ELYTRA:
+            case FISHING_ROD:
+            case FLINT_AND_STEEL:
+            case SHEARS:
+                return ItemCategory.EQUIPMENT;
+            default:
+                break;
+        }
+        
+        String name = material.name();
+        if (name.endsWith("_SWORD")) {
+            return ItemCategory.WEAPON;
+        }
+        if (name.endsWith("_AXE")) {
+            return ItemCategory.AXE;
+        }
+        if (name.endsWith("_PICKAXE") || name.endsWith("_SHOVEL") || name.endsWith("_HOE")) {
+            return ItemCategory.TOOL;
+        }
+        if (slotOf(material) != null) {
+            return ItemCategory.ARMOR;
+        }
+        return ItemCategory.NONE;
+    }
+    
+    /**
+     * Equipment slot implied by an armor piece's name
+     */
+    private static EquipmentSlot slotOf(Material material) {
+        String name = material.name();
+        if (name.endsWith("_HELMET")) return EquipmentSlot.HEAD;
+        if (name.endsWith("_CHESTPLATE")) return EquipmentSlot.CHEST;
+        if (name.endsWith("_LEGGINGS")) return EquipmentSlot.LEGS;
+        if (name.endsWith("_BOOTS")) return EquipmentSlot.FEET;
+        return null;
+    }
+    
+    private static Material parseMaterial(String name, Logger logger) {
+        Material material = Material.matchMaterial(name);
+        if (material == null && logger != null) {
+            logger.warning("Unknown material in items config: " + name);
+        }
+        return material;
+    }
+    
+    private static ItemCategory parseCategory(String name, Logger logger) {
+        try {
+            return ItemCategory.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            if (logger != null) {
+                logger.warning("Unknown item category in items config: " + name
+                    + " (expected one of " + Arrays.toString(ItemCategory.values()) + ")");
+            }
+            return null;
+        }
+    }
+}
\ No newline at end of file
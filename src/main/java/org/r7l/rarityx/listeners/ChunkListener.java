@@ -0,0 +1,112 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.Chunk;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.loot.Lootable;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.rarity.RarityManager;
+import org.r7l.rarityx.tasks.ContainerScanJob;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Handles chunk events for lazy container tagging
+ * 
+ * @author R7LRod
+ */
+public class ChunkListener implements Listener {
+    
+    private final RarityX plugin;
+    private final RarityManager rarityManager;
+    
+    // Queued scans by chunk, cancelled when the chunk unloads: a job holds the live
+    // inventory of the container it is on, which a reloaded chunk replaces
+    private final Map<ChunkKey, ContainerScanJob> pending = new HashMap<>();
+    
+    public ChunkListener(RarityX plugin) {
+        this.plugin = plugin;
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle chunk loading - queue unscanned containers for rarity assignment
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // New chunks only hold generated loot, which is rolled when the loot is generated
+        if (event.isNewChunk()) {
+            return;
+        }
+        
+        Chunk chunk = event.getChunk();
+        ChunkKey key = ChunkKey.of(chunk);
+        if (pending.containsKey(key)) {
+            return;
+        }
+        
+        // Snapshots; the job reads each container from the world again when it gets to it
+        List<Container> containers = new ArrayList<>();
+        for (BlockState state : chunk.getTileEntities()) {
+            if (!(state instanceof Container)) {
+                continue;
+            }
+            // Containers with a pending loot table are still empty
+            if (state instanceof Lootable && ((Lootable) state).getLootTable() != null) {
+                continue;
+            }
+            if (rarityManager.needsContainerScan((Container) state)) {
+                containers.add((Container) state);
+            }
+        }
+        
+        if (!containers.isEmpty()) {
+            ContainerScanJob job = new ContainerScanJob(chunk, rarityManager, containers,
+                finished -> pending.remove(key, finished));
+            pending.put(key, job);
+            plugin.getBackgroundQueue().submit(job);
+        }
+    }
+    
+    /**
+     * Handle chunk unloading - cancel its scan, which starts over on the next load
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        ContainerScanJob job = pending.remove(ChunkKey.of(event.getChunk()));
+        if (job != null) {
+            job.cancel();
+        }
+    }
+    
+    /**
+     * Cancel every queued scan. Called when the listener is unregistered,
+     * since unloads are no longer seen.
+     */
+    public void cancelAll() {
+        for (ContainerScanJob job : pending.values()) {
+            job.cancel();
+        }
+        pending.clear();
+    }
+    
+    private record ChunkKey(UUID world, int x, int z) {
+        
+        static ChunkKey of(Chunk chunk) {
+            return new ChunkKey(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Assigns rarities to crafted items.
+ * Only registered while {@code general.assign-rarity-on-craft} is on.
+ * <p>
+ * Shift-click and Ctrl+Q crafts repeat the recipe from a single event.
+ * Vanilla still performs them, so other plugins see an uncancelled craft and
+ * recipe unlocks, statistics and advancements fire as usual; the outputs are
+ * rolled one by one afterwards.
+ * 
+ * @author R7LRod
+ */
+public class CraftListener implements Listener {
+    
+    private final RarityX plugin;
+    private final RarityManager rarityManager;
+    
+    // Players whose Ctrl+Q craft is dropping its outputs this tick, with the result type
+    private final Map<UUID, Material> controlDrops = new HashMap<>();
+    
+    public CraftListener(RarityX plugin) {
+        this.plugin = plugin;
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle item crafting to assign rarity to crafted items
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onCraftItem(CraftItemEvent event) {
+        ItemStack result = event.getRecipe().getResult();
+        
+        if (result == null || result.getType() == Material.AIR) {
+            return;
+        }
+        
+        // Check if crafted item should have rarity; bulk crafts are rolled once vanilla is done
+        if (MaterialClassifier.current().isEligible(result.getType()) && !isBulkCraft(event.getClick())) {
+            // Assign random rarity and buffs
+            ItemStack rarityItem = rarityManager.roll(result.clone());
+            
+            // Set the result
+            event.setCurrentItem(rarityItem);
+        }
+    }
+    
+    /**
+     * Handle shift-click and Ctrl+Q crafts that went ahead - roll their outputs.
+     * Shift-clicked outputs are found by comparing the inventory with the next
+     * tick; thrown outputs are rolled as they are dropped.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBulkCraft(CraftItemEvent event) {
+        ItemStack result = event.getRecipe().getResult();
+        if (!isBulkCraft(event.getClick()) || !(event.getWhoClicked() instanceof Player)
+            || result == null || !MaterialClassifier.current().isEligible(result.getType())) {
+            return;
+        }
+        
+        Player player = (Player) event.getWhoClicked();
+        UUID playerId = player.getUniqueId();
+        Material type = result.getType();
+        
+        if (event.getClick() == ClickType.CONTROL_DROP) {
+            controlDrops.put(playerId, type);
+            plugin.getServer().getScheduler().runTask(plugin, () -> controlDrops.remove(playerId));
+            return;
+        }
+        
+        // The returned stacks mirror the live slots, so record plain values
+        ItemStack[] contents = player.getInventory().getStorageContents();
+        Material[] types = new Material[contents.length];
+        int[] amounts = new int[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) {
+                types[i] = contents[i].getType();
+                amounts[i] = contents[i].getAmount();
+            }
+        }
+        plugin.getServer().getScheduler().runTask(plugin, () -> rollCraftedSlots(playerId, type, types, amounts));
+    }
+    
+    /**
+     * Handle the outputs of a Ctrl+Q craft, which vanilla drops one craft at a time
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onPlayerDropItem(PlayerDropItemEvent event) {
+        if (controlDrops.isEmpty()) {
+            return;
+        }
+        
+        Material type = controlDrops.get(event.getPlayer().getUniqueId());
+        Item drop = event.getItemDrop();
+        ItemStack item = drop.getItemStack();
+        if (item.getType() == type && !rarityManager.hasRarity(item)) {
+            drop.setItemStack(rarityManager.roll(item));
+        }
+    }
+    
+    /**
+     * Roll the unrolled stacks of the result type in slots that changed since
+     * the craft. Each output of an unstackable result has its own slot and its
+     * own roll; stackable outputs merged into one slot share a roll, as the
+     * outputs of a single craft do.
+     */
+    private void rollCraftedSlots(UUID playerId, Material type, Material[] types, int[] amounts) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player == null) {
+            return;
+        }
+        
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        int assigned = 0;
+        for (int i = 0; i < contents.length && i < types.length; i++) {
+            ItemStack item = contents[i];
+            if (item == null || item.getType() != type || (types[i] == type && amounts[i] == item.getAmount())) {
+                continue;
+            }
+            if (!rarityManager.hasRarity(item)) {
+                inventory.setItem(i, rarityManager.roll(item));
+                assigned++;
+            }
+        }
+        
+        if (assigned > 0) {
+            rarityManager.getHeldRarityCache().invalidate(playerId);
+        }
+    }
+    
+    private static boolean isBulkCraft(ClickType click) {
+        return click.isShiftClick() || click == ClickType.CONTROL_DROP;
+    }
+}
\ No newline at end of file
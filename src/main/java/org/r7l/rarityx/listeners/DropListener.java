@@ -0,0 +1,39 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+/**
+ * Assigns rarities to items dropped by players.
+ * Only registered while {@code general.assign-rarity-on-drop} is on.
+ * 
+ * @author R7LRod
+ */
+public class DropListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public DropListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle item drops - assign a rarity to items that have none
+     */
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onPlayerDropItem(PlayerDropItemEvent event) {
+        ItemStack item = event.getItemDrop().getItemStack();
+        
+        // If item doesn't have rarity, assign one
+        if (MaterialClassifier.current().isEligible(item.getType()) && !rarityManager.hasRarity(item)) {
+            ItemStack rarityItem = rarityManager.roll(item);
+            event.getItemDrop().setItemStack(rarityItem);
+        }
+    }
+}
\ No newline at end of file
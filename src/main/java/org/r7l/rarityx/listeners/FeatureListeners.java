@@ -0,0 +1,89 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.r7l.rarityx.config.PluginSettings;
+import org.r7l.rarityx.metrics.TimedListeners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Listeners that are only registered while their feature is enabled.
+ * <p>
+ * A disabled feature has no handlers in the server's handler lists, so it
+ * costs nothing per event instead of a flag check in every handler.
+ * {@link #refresh(PluginSettings)} registers or unregisters listeners after
+ * the settings change.
+ * 
+ * @author R7LRod
+ */
+public final class FeatureListeners {
+    
+    private final Plugin plugin;
+    private final List<Feature> features = new ArrayList<>();
+    
+    public FeatureListeners(Plugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Add a listener that is registered while a setting is on.
+     * Takes effect on the next {@link #refresh(PluginSettings)}.
+     * @param listener The listener
+     * @param enabled Reads the listener's switch from the settings
+     */
+    public void add(Listener listener, Predicate<PluginSettings> enabled) {
+        add(listener, enabled, null);
+    }
+    
+    /**
+     * Add a listener that is registered while a setting is on, with a callback
+     * for state it keeps outside the handler lists, such as queued jobs or caches
+     * that its handlers keep in sync. Takes effect on the next {@link #refresh(PluginSettings)}.
+     * @param listener The listener
+     * @param enabled Reads the listener's switch from the settings
+     * @param onToggle Called after the listener is registered or unregistered, or null
+     */
+    public void add(Listener listener, Predicate<PluginSettings> enabled, Runnable onToggle) {
+        features.add(new Feature(listener, enabled, onToggle));
+    }
+    
+    /**
+     * Register listeners whose feature was turned on and unregister those turned off
+     * @param settings The current settings
+     */
+    public void refresh(PluginSettings settings) {
+        for (Feature feature : features) {
+            boolean enabled = feature.enabled.test(settings);
+            if (enabled == feature.registered) {
+                continue;
+            }
+            
+            if (enabled) {
+                TimedListeners.register(feature.listener, plugin);
+            } else {
+                HandlerList.unregisterAll(feature.listener);
+            }
+            feature.registered = enabled;
+            if (feature.onToggle != null) {
+                feature.onToggle.run();
+            }
+        }
+    }
+    
+    private static final class Feature {
+        private final Listener listener;
+        private final Predicate<PluginSettings> enabled;
+        private final Runnable onToggle;
+        private boolean registered;
+        
+        Feature(Listener listener, Predicate<PluginSettings> enabled, Runnable onToggle) {
+            this.listener = listener;
+            this.enabled = enabled;
+            this.onToggle = onToggle;
+        }
+    }
+}
\ No newline at end of file
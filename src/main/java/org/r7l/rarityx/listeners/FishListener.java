@@ -0,0 +1,42 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerFishEvent;
+import org.bukkit.inventory.ItemStack;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+/**
+ * Assigns rarities to items caught while fishing.
+ * Only registered while {@code general.assign-rarity-on-fish} is on.
+ * 
+ * @author R7LRod
+ */
+public class FishListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public FishListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle fishing catches
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPlayerFish(PlayerFishEvent event) {
+        if (event.getState() != PlayerFishEvent.State.CAUGHT_FISH || !(event.getCaught() instanceof Item)) {
+            return;
+        }
+        
+        Item caught = (Item) event.getCaught();
+        ItemStack item = caught.getItemStack();
+        if (MaterialClassifier.current().isEligible(item.getType()) && !rarityManager.hasRarity(item)) {
+            caught.setItemStack(rarityManager.roll(item));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.rarity.HeldRarityCache;
+
+/**
+ * Keeps the per-player held-rarity cache in sync with main-hand changes.
+ * Handlers run at MONITOR so they see the final outcome of each event.
+ * 
+ * @author R7LRod
+ */
+public class HeldItemListener implements Listener {
+    
+    private final HeldRarityCache heldRarities;
+    
+    public HeldItemListener(RarityX plugin) {
+        this.heldRarities = plugin.getRarityManager().getHeldRarityCache();
+    }
+    
+    /**
+     * Handle hotbar slot changes
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerItemHeld(PlayerItemHeldEvent event) {
+        Player player = event.getPlayer();
+        heldRarities.update(player, player.getInventory().getItem(event.getNewSlot()));
+    }
+    
+    /**
+     * Handle swapping main and off hand. The event only carries copies of the
+     * items, so the entry is dropped and the next lookup reads the real stack.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerSwapHandItems(PlayerSwapHandItemsEvent event) {
+        heldRarities.invalidate(event.getPlayer().getUniqueId());
+    }
+    
+    /**
+     * Handle inventory clicks, including crafting and shift-clicks into the hotbar
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        heldRarities.invalidate(event.getWhoClicked().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        heldRarities.invalidate(event.getWhoClicked().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityPickupItem(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player) {
+            heldRarities.invalidate(event.getEntity().getUniqueId());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerDropItem(PlayerDropItemEvent event) {
+        heldRarities.invalidate(event.getPlayer().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerItemBreak(PlayerItemBreakEvent event) {
+        heldRarities.invalidate(event.getPlayer().getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        heldRarities.invalidate(event.getPlayer().getUniqueId());
+    }
+    
+    /**
+     * Handle player leaving - forget their entry
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        heldRarities.invalidate(event.getPlayer().getUniqueId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.LootGenerateEvent;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.rarity.RarityManager;
+
+/**
+ * Assigns rarities to loot generated in chests, minecarts and vaults.
+ * Only registered while {@code general.assign-rarity-on-loot} is on.
+ * 
+ * @author R7LRod
+ */
+public class LootListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public LootListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle loot generation for chests, minecarts, vaults and entity loot tables
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onLootGenerate(LootGenerateEvent event) {
+        rarityManager.rollAll(event.getLoot());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.rarity.RarityManager;
+
+/**
+ * Assigns rarities to equipment dropped by mobs.
+ * Only registered while {@code general.assign-rarity-on-mob-drop} is on.
+ * 
+ * @author R7LRod
+ */
+public class MobDropListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public MobDropListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle mob deaths - player deaths drop their own items and are left alone
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onEntityDeath(EntityDeathEvent event) {
+        if (event.getEntity() instanceof Player) {
+            return;
+        }
+        
+        rarityManager.rollAll(event.getDrops());
+    }
+}
\ No newline at end of file
@@ -4,16 +4,19 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
-import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.r7l.rarityx.RarityX;
-import org.r7l.rarityx.rarity.Rarity;
 import org.r7l.rarityx.rarity.RarityManager;
+import org.r7l.rarityx.tasks.InventoryBackfillJob;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 /**
- * Handles player-related events for rarity system
+ * Assigns rarities to existing inventories when players join.
+ * Only registered while {@code general.assign-rarity-on-join} is on.
  * 
  * @author R7LRod
  */
@@ -22,131 +25,68 @@ public class PlayerListener implements Listener {
     private final RarityX plugin;
     private final RarityManager rarityManager;
     
+    // At most one backfill per player, replaced on rejoin and cancelled on quit
+    private final Map<UUID, InventoryBackfillJob> jobs = new HashMap<>();
+    
     public PlayerListener(RarityX plugin) {
         this.plugin = plugin;
         this.rarityManager = plugin.getRarityManager();
     }
     
     /**
-     * Handle player joining - could assign rarities to existing items
+     * Handle player joining - queue a backfill of the player's items
      */
     @EventHandler(priority = EventPriority.NORMAL)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
         
-        // If configured, assign rarities to items without them
-        if (plugin.getConfigManager().isAssignRarityOnJoin()) {
+        // Assign rarities to items without them, once per backfill revision
+        if (rarityManager.needsBackfill(player)) {
             assignRaritiesToInventory(player);
         }
     }
     
     /**
-     * Handle block breaking for mining speed buffs
+     * Handle player quitting - cancel an unfinished backfill, which starts over on the next join
      */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockBreak(BlockBreakEvent event) {
-        Player player = event.getPlayer();
-        ItemStack tool = player.getInventory().getItemInMainHand();
-        
-        if (tool == null) return;
-        
-        Rarity rarity = rarityManager.getRarity(tool);
-        if (rarity == null) return;
-        
-        // Apply mining speed bonus (this is a simplified implementation)
-        // In a real implementation, you might want to use a more sophisticated approach
-        double multiplier = rarity.getMultiplier();
-        
-        // Give experience bonus based on rarity
-        if (rarity.ordinal() >= Rarity.UNCOMMON.ordinal()) {
-            int bonusExp = (int) ((multiplier - 1.0) * 2);
-            event.setExpToDrop(event.getExpToDrop() + bonusExp);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        InventoryBackfillJob job = jobs.remove(event.getPlayer().getUniqueId());
+        if (job != null) {
+            job.cancel();
         }
     }
     
     /**
-     * Handle entity damage for weapon buff effects
+     * Cancel every unfinished backfill. Called when the listener is unregistered,
+     * since its quit handler no longer removes the jobs of leaving players.
      */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
-        if (!(event.getDamager() instanceof Player)) {
-            return;
-        }
-        
-        Player attacker = (Player) event.getDamager();
-        ItemStack weapon = attacker.getInventory().getItemInMainHand();
-        
-        if (weapon == null) return;
-        
-        Rarity rarity = rarityManager.getRarity(weapon);
-        if (rarity == null) return;
-        
-        // Apply damage multiplier (note: attribute modifiers should handle this,
-        // but this provides additional effects)
-        double multiplier = rarity.getMultiplier();
-        
-        // Add special effects for higher rarities
-        switch (rarity) {
-            case EPIC:
-                // 10% chance to deal extra damage
-                if (Math.random() < 0.1) {
-                    double damage = event.getDamage();
-                    event.setDamage(damage * 1.2);
-                    attacker.sendMessage("§5Epic Strike!");
-                }
-                break;
-            case MYTHIC:
-                // 15% chance to deal critical damage
-                if (Math.random() < 0.15) {
-                    double damage = event.getDamage();
-                    event.setDamage(damage * 1.5);
-                    attacker.sendMessage("§6Mythic Critical Hit!");
-                }
-                break;
+    public void cancelAll() {
+        for (InventoryBackfillJob job : jobs.values()) {
+            job.cancel();
         }
+        jobs.clear();
     }
     
     /**
-     * Assign rarities to items in player's inventory that don't have them
+     * Queue rarity assignment for items in the player's inventory and ender chest
+     * that don't have one. The work is spread over ticks by the background queue.
      */
     private void assignRaritiesToInventory(Player player) {
-        ItemStack[] contents = player.getInventory().getContents();
-        boolean modified = false;
-        
-        for (int i = 0; i < contents.length; i++) {
-            ItemStack item = contents[i];
-            
-            if (item != null && !rarityManager.hasRarity(item) && shouldAssignRarity(item)) {
-                ItemStack rarityItem = rarityManager.assignRandomRarity(item);
-                Rarity rarity = rarityManager.getRarity(rarityItem);
-                
-                if (rarity != null) {
-                    contents[i] = org.r7l.rarityx.buffs.BuffManager.applyBuffs(rarityItem, rarity);
-                    modified = true;
-                }
+        // Replaced jobs are cancelled and never complete, so a completing job is the current one
+        UUID playerId = player.getUniqueId();
+        InventoryBackfillJob job = new InventoryBackfillJob(playerId, rarityManager, (online, assigned) -> {
+            jobs.remove(playerId);
+            rarityManager.markBackfilled(online);
+            if (assigned > 0) {
+                online.sendMessage("§aRarities have been assigned to your items!");
             }
-        }
+        });
         
-        if (modified) {
-            player.getInventory().setContents(contents);
-            player.sendMessage("§aRarities have been assigned to your items!");
+        InventoryBackfillJob previous = jobs.put(playerId, job);
+        if (previous != null) {
+            previous.cancel();
         }
-    }
-    
-    /**
-     * Check if item should have rarity assigned
-     */
-    private boolean shouldAssignRarity(ItemStack item) {
-        String name = item.getType().name();
-        
-        // Only assign to tools, weapons, and armor
-        return name.contains("SWORD") || name.contains("AXE") || 
-               name.contains("PICKAXE") || name.contains("SHOVEL") || 
-               name.contains("HOE") || name.contains("HELMET") || 
-               name.contains("CHESTPLATE") || name.contains("LEGGINGS") || 
-               name.contains("BOOTS") || name.contains("BOW") ||
-               item.getType().name().equals("TRIDENT") ||
-               item.getType().name().equals("CROSSBOW") ||
-               item.getType().name().equals("SHIELD");
+        plugin.getBackgroundQueue().submit(job);
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.buffs.BuffProfile;
+import org.r7l.rarityx.rarity.Rarity;
+import org.r7l.rarityx.rarity.RarityManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Combat and mining effects of the held item's buff profile.
+ * Only registered while {@code buffs.enable-special-effects} is on.
+ * 
+ * @author R7LRod
+ */
+public class SpecialEffectsListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public SpecialEffectsListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle block breaking for mining speed buffs
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Player player = event.getPlayer();
+        
+        Rarity rarity = rarityManager.getHeldRarity(player);
+        if (rarity == null) return;
+        
+        // Apply mining speed bonus (this is a simplified implementation)
+        // In a real implementation, you might want to use a more sophisticated approach
+        double multiplier = rarity.getMultiplier();
+        
+        // Give experience bonus based on the rarity's buff profile
+        int bonusExp = (int) ((multiplier - 1.0) * BuffManager.getProfile(rarity).getBonusExp());
+        if (bonusExp > 0) {
+            event.setExpToDrop(event.getExpToDrop() + bonusExp);
+        }
+    }
+    
+    /**
+     * Handle entity damage for weapon buff effects
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onEntityDamageByEntity(EntityDamageByEntityEvent event) {
+        if (!(event.getDamager() instanceof Player)) {
+            return;
+        }
+        
+        Player attacker = (Player) event.getDamager();
+        
+        Rarity rarity = rarityManager.getHeldRarity(attacker);
+        if (rarity == null) return;
+        
+        // Critical hits from the rarity's buff profile
+        BuffProfile profile = BuffManager.getProfile(rarity);
+        if (profile.getCriticalChance() > 0 && ThreadLocalRandom.current().nextDouble() < profile.getCriticalChance()) {
+            event.setDamage(event.getDamage() * profile.getCriticalDamage());
+            if (profile.getCriticalMessage() != null) {
+                attacker.sendMessage(profile.getCriticalMessage()
+                    .replace("{rarity}", rarity.getColor() + rarity.getDisplayName()));
+            }
+        }
+    }
+}
\ No newline at end of file
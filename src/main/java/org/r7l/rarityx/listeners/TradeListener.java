@@ -0,0 +1,45 @@
+package org.r7l.rarityx.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.VillagerAcquireTradeEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.MerchantRecipe;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+/**
+ * Assigns rarities to villager trade results.
+ * Only registered while {@code general.assign-rarity-on-trade} is on.
+ * 
+ * @author R7LRod
+ */
+public class TradeListener implements Listener {
+    
+    private final RarityManager rarityManager;
+    
+    public TradeListener(RarityX plugin) {
+        this.rarityManager = plugin.getRarityManager();
+    }
+    
+    /**
+     * Handle villagers unlocking trades. The rarity is rolled once per trade
+     * offer, so every purchase of that offer yields the same rarity.
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onVillagerAcquireTrade(VillagerAcquireTradeEvent event) {
+        MerchantRecipe recipe = event.getRecipe();
+        ItemStack result = recipe.getResult();
+        if (!MaterialClassifier.current().isEligible(result.getType()) || rarityManager.hasRarity(result)) {
+            return;
+        }
+        
+        MerchantRecipe rolled = new MerchantRecipe(rarityManager.roll(result.clone()), recipe.getUses(),
+            recipe.getMaxUses(), recipe.hasExperienceReward(), recipe.getVillagerExperience(),
+            recipe.getPriceMultiplier(), recipe.getDemand(), recipe.getSpecialPrice(), recipe.shouldIgnoreDiscounts());
+        rolled.setIngredients(recipe.getIngredients());
+        event.setRecipe(rolled);
+    }
+}
\ No newline at end of file
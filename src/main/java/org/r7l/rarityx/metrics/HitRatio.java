@@ -0,0 +1,92 @@
+package org.r7l.rarityx.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Hit ratio of a cache that keeps its own cumulative counters.
+ * Window values are derived from the counters at each rotation.
+ * 
+ * @author R7LRod
+ */
+public final class HitRatio {
+    
+    private final String name;
+    private final LongSupplier hits;
+    private final LongSupplier misses;
+    private final Runnable resetAction;
+    
+    // Guarded by this
+    private long windowStartHits;
+    private long windowStartMisses;
+    private volatile long lastWindowHits;
+    private volatile long lastWindowMisses;
+    
+    HitRatio(String name, LongSupplier hits, LongSupplier misses, Runnable resetAction) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.resetAction = resetAction;
+    }
+    
+    /**
+     * Get the name of the cache
+     * @return Cache name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get the number of lookups since the last reset
+     * @return Hits plus misses
+     */
+    public long getLookups() {
+        return hits.getAsLong() + misses.getAsLong();
+    }
+    
+    /**
+     * Get the hit ratio since the last reset
+     * @return Ratio between 0 and 1
+     */
+    public double getRatio() {
+        return ratio(hits.getAsLong(), misses.getAsLong());
+    }
+    
+    /**
+     * Get the number of lookups in the last completed window
+     * @return Hits plus misses
+     */
+    public long getLastWindowLookups() {
+        return lastWindowHits + lastWindowMisses;
+    }
+    
+    /**
+     * Get the hit ratio of the last completed window
+     * @return Ratio between 0 and 1
+     */
+    public double getLastWindowRatio() {
+        return ratio(lastWindowHits, lastWindowMisses);
+    }
+    
+    synchronized void rotate() {
+        long currentHits = hits.getAsLong();
+        long currentMisses = misses.getAsLong();
+        lastWindowHits = currentHits - windowStartHits;
+        lastWindowMisses = currentMisses - windowStartMisses;
+        windowStartHits = currentHits;
+        windowStartMisses = currentMisses;
+    }
+    
+    synchronized void reset() {
+        resetAction.run();
+        windowStartHits = 0;
+        windowStartMisses = 0;
+        lastWindowHits = 0;
+        lastWindowMisses = 0;
+    }
+    
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package org.r7l.rarityx.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the plugin's timers and cache hit ratios.
+ * <p>
+ * Timers are looked up once, when a listener is registered or a class is
+ * initialized, and then used directly. Timing a call is:
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * TIMER.stop(start);
+ * </pre>
+ * When metrics are disabled {@link #start()} returns {@link #DISABLED} and
+ * {@link Timer#stop(long)} does nothing.
+ * 
+ * @author R7LRod
+ */
+public final class Metrics {
+    
+    /**
+     * Start value returned while metrics are disabled
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+    
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final List<HitRatio> HIT_RATIOS = new CopyOnWriteArrayList<>();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+    
+    private static volatile boolean enabled = true;
+    private static volatile boolean trackAllocations = false;
+    
+    private Metrics() {
+    }
+    
+    /**
+     * Configure metric collection
+     * @param enable Record timings
+     * @param allocations Also record per-call allocations, if the JVM supports it
+     */
+    public static void configure(boolean enable, boolean allocations) {
+        enabled = enable;
+        trackAllocations = enable && allocations && THREADS != null;
+    }
+    
+    /**
+     * Check if per-call allocation tracking is active
+     * @return True if allocations are recorded
+     */
+    public static boolean isTrackingAllocations() {
+        return trackAllocations;
+    }
+    
+    /**
+     * Get or create a timer
+     * @param name The operation name, e.g. {@code CraftListener.onCraftItem}
+     * @return The timer
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+    
+    /**
+     * Register a cache whose hit ratio should be reported
+     * @param name The cache name
+     * @param hits Cumulative hit counter
+     * @param misses Cumulative miss counter
+     * @param reset Resets the cache's counters
+     */
+    public static void registerHitRatio(String name, LongSupplier hits, LongSupplier misses, Runnable reset) {
+        HIT_RATIOS.removeIf(ratio -> ratio.getName().equals(name));
+        HIT_RATIOS.add(new HitRatio(name, hits, misses, reset));
+    }
+    
+    /**
+     * Get the start timestamp for a timed call
+     * @return Current {@link System#nanoTime()}, or {@link #DISABLED}
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+    
+    /**
+     * Get the current thread's allocation counter
+     * @return Bytes allocated by this thread so far, or 0 when not tracking
+     */
+    public static long allocatedBytes() {
+        return trackAllocations ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+    
+    /**
+     * Get all timers, sorted by name
+     * @return Timer list
+     */
+    public static List<Timer> getTimers() {
+        List<Timer> timers = new ArrayList<>(TIMERS.values());
+        timers.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return timers;
+    }
+    
+    /**
+     * Get all registered cache hit ratios
+     * @return Hit ratio list
+     */
+    public static List<HitRatio> getHitRatios() {
+        return Collections.unmodifiableList(HIT_RATIOS);
+    }
+    
+    /**
+     * Close the current window of every timer and hit ratio
+     */
+    public static void rotate() {
+        for (Timer timer : TIMERS.values()) {
+            timer.rotate();
+        }
+        for (HitRatio ratio : HIT_RATIOS) {
+            ratio.rotate();
+        }
+    }
+    
+    /**
+     * Discard all recorded data
+     */
+    public static void reset() {
+        for (Timer timer : TIMERS.values()) {
+            timer.reset();
+        }
+        for (HitRatio ratio : HIT_RATIOS) {
+            ratio.reset();
+        }
+    }
+    
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package org.r7l.rarityx.metrics;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * Registers listeners so every handler call is timed.
+ * <p>
+ * Works like {@link org.bukkit.plugin.PluginManager#registerEvents}, but
+ * each public {@link EventHandler} method gets an executor that records
+ * into the timer {@code <Listener>.<method>}. Handlers need no changes, and
+ * {@link org.bukkit.event.HandlerList#unregisterAll(Listener)} still works.
+ * 
+ * @author R7LRod
+ */
+public final class TimedListeners {
+    
+    private TimedListeners() {
+    }
+    
+    /**
+     * Register all event handlers of a listener with timing
+     * @param listener The listener
+     * @param plugin The owning plugin
+     */
+    public static void register(Listener listener, Plugin plugin) {
+        for (Method method : listener.getClass().getMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic()
+                || method.getParameterCount() != 1
+                || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+            
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            Timer timer = Metrics.timer(listener.getClass().getSimpleName() + "." + method.getName());
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method).bindTo(listener);
+            } catch (IllegalAccessException e) {
+                plugin.getLogger().warning("Cannot register " + timer.getName() + ": " + e.getMessage());
+                continue;
+            }
+            
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(),
+                new TimedExecutor(eventClass, handle, timer), plugin, handler.ignoreCancelled());
+        }
+    }
+    
+    /**
+     * Calls one handler method and records its latency
+     */
+    private static final class TimedExecutor implements EventExecutor {
+        private final Class<? extends Event> eventClass;
+        private final MethodHandle handle;
+        private final Timer timer;
+        
+        TimedExecutor(Class<? extends Event> eventClass, MethodHandle handle, Timer timer) {
+            this.eventClass = eventClass;
+            this.handle = handle;
+            this.timer = timer;
+        }
+        
+        @Override
+        public void execute(Listener listener, Event event) throws EventException {
+            // Handler lists are shared with subclasses of the event type
+            if (!eventClass.isInstance(event)) {
+                return;
+            }
+            
+            long start = Metrics.start();
+            long allocated = Metrics.allocatedBytes();
+            try {
+                handle.invoke(event);
+            } catch (Throwable t) {
+                throw new EventException(t);
+            } finally {
+                timer.stop(start, allocated);
+            }
+        }
+    }
+}
\ No newline at end of file
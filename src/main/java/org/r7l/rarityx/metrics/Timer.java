@@ -0,0 +1,126 @@
+package org.r7l.rarityx.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call counter and latency histogram for one instrumented operation.
+ * <p>
+ * Recording only touches {@link LongAdder}s, so it is cheap and safe from
+ * any thread. Calls are recorded into the current window; {@link #rotate()}
+ * closes the window and folds it into the running total.
+ * 
+ * @author R7LRod
+ */
+public final class Timer {
+    
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[TimerSnapshot.BUCKETS];
+    
+    // Guarded by this
+    private TimerSnapshot closedWindows = TimerSnapshot.EMPTY;
+    private volatile TimerSnapshot lastWindow = TimerSnapshot.EMPTY;
+    
+    Timer(String name) {
+        this.name = name;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Get the name of the instrumented operation
+     * @return Timer name
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Record a call started with {@link Metrics#start()}
+     * @param start The start timestamp
+     */
+    public void stop(long start) {
+        if (start != Metrics.DISABLED) {
+            record(System.nanoTime() - start, 0);
+        }
+    }
+    
+    /**
+     * Record a call started with {@link Metrics#start()} and {@link Metrics#allocatedBytes()}
+     * @param start The start timestamp
+     * @param allocatedAtStart The thread's allocation counter at the start
+     */
+    public void stop(long start, long allocatedAtStart) {
+        if (start != Metrics.DISABLED) {
+            long nanos = System.nanoTime() - start;
+            record(nanos, Metrics.allocatedBytes() - allocatedAtStart);
+        }
+    }
+    
+    /**
+     * Record one call
+     * @param nanos Latency in nanoseconds
+     * @param bytes Bytes allocated by the call
+     */
+    void record(long nanos, long bytes) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets[TimerSnapshot.bucketOf(nanos)].increment();
+        if (bytes > 0) {
+            allocatedBytes.add(bytes);
+        }
+    }
+    
+    /**
+     * Get everything recorded since the last reset
+     * @return Snapshot of all windows including the current one
+     */
+    public synchronized TimerSnapshot snapshot() {
+        return closedWindows.plus(currentWindow(false));
+    }
+    
+    /**
+     * Get the last completed window
+     * @return Snapshot of the previous window
+     */
+    public TimerSnapshot lastWindow() {
+        return lastWindow;
+    }
+    
+    /**
+     * Close the current window
+     */
+    synchronized void rotate() {
+        TimerSnapshot window = currentWindow(true);
+        closedWindows = closedWindows.plus(window);
+        lastWindow = window;
+    }
+    
+    /**
+     * Discard all recorded data
+     */
+    synchronized void reset() {
+        currentWindow(true);
+        closedWindows = TimerSnapshot.EMPTY;
+        lastWindow = TimerSnapshot.EMPTY;
+    }
+    
+    private TimerSnapshot currentWindow(boolean reset) {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = reset ? buckets[i].sumThenReset() : buckets[i].sum();
+        }
+        
+        if (reset) {
+            return new TimerSnapshot(count.sumThenReset(), totalNanos.sumThenReset(),
+                maxNanos.getThenReset(), allocatedBytes.sumThenReset(), counts);
+        }
+        return new TimerSnapshot(count.sum(), totalNanos.sum(), maxNanos.get(), allocatedBytes.sum(), counts);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package org.r7l.rarityx.metrics;
+
+/**
+ * Immutable view of a {@link Timer} over some period.
+ * <p>
+ * Latencies are kept in log-linear buckets: values below 8 ns are exact,
+ * larger values fall into one of 8 sub-buckets per power of two, so any
+ * reported percentile is within 12.5% of the true value.
+ * 
+ * @author R7LRod
+ */
+public final class TimerSnapshot {
+    
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    
+    // Highest power of two tracked; larger values land in the last bucket (about 1100 s)
+    private static final int MAX_EXPONENT = 40;
+    
+    /**
+     * Number of histogram buckets
+     */
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    
+    static final TimerSnapshot EMPTY = new TimerSnapshot(0, 0, 0, 0, new long[BUCKETS]);
+    
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long allocatedBytes;
+    private final long[] buckets;
+    
+    TimerSnapshot(long count, long totalNanos, long maxNanos, long allocatedBytes, long[] buckets) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.buckets = buckets;
+    }
+    
+    /**
+     * Get the histogram bucket of a latency
+     * @param nanos Latency in nanoseconds
+     * @return Bucket index
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+    
+    /**
+     * Get the largest latency that falls into a bucket
+     * @param bucket Bucket index
+     * @return Upper bound in nanoseconds
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+    
+    /**
+     * Combine two snapshots
+     * @param other The snapshot to add
+     * @return New snapshot covering both
+     */
+    TimerSnapshot plus(TimerSnapshot other) {
+        long[] merged = buckets.clone();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] += other.buckets[i];
+        }
+        return new TimerSnapshot(count + other.count, totalNanos + other.totalNanos,
+            Math.max(maxNanos, other.maxNanos), allocatedBytes + other.allocatedBytes, merged);
+    }
+    
+    /**
+     * Get the number of recorded calls
+     * @return Call count
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Get the summed latency of all calls
+     * @return Total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    /**
+     * Get the mean latency
+     * @return Mean time in nanoseconds, 0 if nothing was recorded
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+    
+    /**
+     * Get the slowest recorded call
+     * @return Maximum time in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+    
+    /**
+     * Get a latency percentile
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket holding the percentile, in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+    
+    /**
+     * Get the mean number of bytes allocated per call
+     * @return Bytes per call, 0 if allocation tracking is off
+     */
+    public long getAllocatedBytesPerCall() {
+        return count == 0 ? 0 : allocatedBytes / count;
+    }
+}
\ No newline at end of file
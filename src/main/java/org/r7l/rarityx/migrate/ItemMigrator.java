@@ -0,0 +1,357 @@
+package org.r7l.rarityx.migrate;
+
+import org.bukkit.Material;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.buffs.BuffTemplate;
+import org.r7l.rarityx.buffs.BuffTemplates;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.Rarity;
+import org.r7l.rarityx.rarity.RarityManager;
+import org.r7l.rarityx.rarity.RaritySettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Assigns rarities to items stored as NBT, producing the same data as
+ * {@code RarityManager.roll()} does through the Bukkit API.
+ * <p>
+ * Only the item component format introduced in Minecraft 1.20.5 is
+ * supported; older data is counted as skipped and left for the server to
+ * upgrade. Instances only read the immutable snapshots captured when they
+ * are created, so one migration uses one configuration throughout, and are
+ * safe to share between worker threads.
+ * 
+ * @author R7LRod
+ */
+final class ItemMigrator {
+    
+    /**
+     * First data version using item components (1.20.5)
+     */
+    static final int MIN_DATA_VERSION = 3837;
+    
+    private static final String CUSTOM_DATA = "minecraft:custom_data";
+    private static final String BUKKIT_VALUES = "PublicBukkitValues";
+    private static final String LORE = "minecraft:lore";
+    private static final String ATTRIBUTE_MODIFIERS = "minecraft:attribute_modifiers";
+    private static final String ENCHANTMENTS = "minecraft:enchantments";
+    
+    private final MaterialClassifier classifier;
+    private final RaritySettings settings;
+    private final BuffTemplates templates;
+    private final MigrationStats stats;
+    private final String rarityKey;
+    private final String legacyRarityKey;
+    private final String enchantedKey;
+    
+    /**
+     * @param namespace The plugin's key namespace
+     * @param stats Counters to update
+     */
+    ItemMigrator(String namespace, MigrationStats stats) {
+        this.classifier = MaterialClassifier.current();
+        this.settings = RaritySettings.current();
+        this.templates = BuffManager.getTemplates();
+        this.stats = stats;
+        this.rarityKey = namespace + ":" + RarityManager.RARITY_KEY;
+        this.legacyRarityKey = namespace + ":" + RarityManager.LEGACY_RARITY_KEY;
+        this.enchantedKey = BuffManager.ENCHANTED_KEY.toString();
+    }
+    
+    /**
+     * Migrate the block entities of a region chunk, or the entities of an entity chunk
+     * @param chunk The chunk root compound
+     * @return True if anything changed
+     */
+    boolean migrateChunk(NbtCompound chunk) {
+        if (chunk.getInt("DataVersion", 0) < MIN_DATA_VERSION) {
+            stats.chunksSkipped.increment();
+            return false;
+        }
+        
+        boolean changed = false;
+        NbtList blockEntities = chunk.getList("block_entities");
+        if (blockEntities != null) {
+            for (Object blockEntity : blockEntities) {
+                if (blockEntity instanceof NbtCompound) {
+                    changed |= migrateHolder((NbtCompound) blockEntity);
+                }
+            }
+        }
+        
+        NbtList entities = chunk.getList("Entities");
+        if (entities != null) {
+            for (Object entity : entities) {
+                if (entity instanceof NbtCompound) {
+                    changed |= migrateEntity((NbtCompound) entity);
+                }
+            }
+        }
+        
+        stats.chunks.increment();
+        return changed;
+    }
+    
+    /**
+     * Migrate a player data file
+     * @param player The player root compound
+     * @return True if anything changed
+     */
+    boolean migratePlayer(NbtCompound player) {
+        if (player.getInt("DataVersion", 0) < MIN_DATA_VERSION) {
+            stats.chunksSkipped.increment();
+            return false;
+        }
+        
+        return migrateItems(player.getList("Inventory")) | migrateItems(player.getList("EnderItems"));
+    }
+    
+    private boolean migrateEntity(NbtCompound entity) {
+        boolean changed = migrateHolder(entity);
+        changed |= migrateItems(entity.getList("ArmorItems"));
+        changed |= migrateItems(entity.getList("HandItems"));
+        
+        NbtCompound bodyArmor = entity.getCompound("body_armor_item");
+        if (bodyArmor != null) {
+            changed |= migrateItem(bodyArmor);
+        }
+        
+        NbtList passengers = entity.getList("Passengers");
+        if (passengers != null) {
+            for (Object passenger : passengers) {
+                if (passenger instanceof NbtCompound) {
+                    changed |= migrateEntity((NbtCompound) passenger);
+                }
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Containers (Items), item entities and frames (Item), decorated pots (item)
+     */
+    private boolean migrateHolder(NbtCompound holder) {
+        boolean changed = migrateItems(holder.getList("Items"));
+        
+        NbtCompound item = holder.getCompound("Item");
+        if (item != null) {
+            changed |= migrateItem(item);
+        }
+        item = holder.getCompound("item");
+        if (item != null) {
+            changed |= migrateItem(item);
+        }
+        return changed;
+    }
+    
+    private boolean migrateItems(NbtList items) {
+        if (items == null) {
+            return false;
+        }
+        
+        boolean changed = false;
+        for (Object item : items) {
+            if (item instanceof NbtCompound) {
+                changed |= migrateItem((NbtCompound) item);
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Migrate one item and the items stored inside it
+     * @param item The item compound
+     * @return True if anything changed
+     */
+    boolean migrateItem(NbtCompound item) {
+        String id = item.getString("id");
+        if (id == null) {
+            return false;
+        }
+        
+        NbtCompound components = item.getCompound("components");
+        boolean changed = components != null && migrateContents(components);
+        
+        Material material = Material.matchMaterial(id);
+        if (material == null || !classifier.isEligible(material)) {
+            return changed;
+        }
+        stats.itemsScanned.increment();
+        
+        if (components != null && hasRarity(components)) {
+            return changed;
+        }
+        
+        if (components == null) {
+            components = item.getOrCreateCompound("components");
+        }
+        applyRarity(components, material, settings.getSampler(material).sample(ThreadLocalRandom.current()));
+        stats.itemsTagged.increment();
+        return true;
+    }
+    
+    /**
+     * Shulker boxes and bundles
+     */
+    private boolean migrateContents(NbtCompound components) {
+        boolean changed = false;
+        
+        NbtList container = components.getList("minecraft:container");
+        if (container != null) {
+            for (Object slot : container) {
+                if (slot instanceof NbtCompound) {
+                    NbtCompound item = ((NbtCompound) slot).getCompound("item");
+                    if (item != null) {
+                        changed |= migrateItem(item);
+                    }
+                }
+            }
+        }
+        
+        changed |= migrateItems(components.getList("minecraft:bundle_contents"));
+        return changed;
+    }
+    
+    private boolean hasRarity(NbtCompound components) {
+        NbtCompound customData = components.getCompound(CUSTOM_DATA);
+        NbtCompound bukkitValues = customData != null ? customData.getCompound(BUKKIT_VALUES) : null;
+        return bukkitValues != null
+            && (bukkitValues.containsKey(rarityKey) || bukkitValues.containsKey(legacyRarityKey));
+    }
+    
+    /**
+     * Write the rarity tag, rarity lore and buffs
+     */
+    private void applyRarity(NbtCompound components, Material material, Rarity rarity) {
+        NbtCompound bukkitValues = components.getOrCreateCompound(CUSTOM_DATA).getOrCreateCompound(BUKKIT_VALUES);
+        bukkitValues.put(rarityKey, rarity.getCode());
+        
+        List<String> lore = new ArrayList<>();
+        lore.add("");
+        lore.add(rarity.getLoreLine());
+        
+        BuffTemplate template = templates.get(material, rarity);
+        if (template != null) {
+            for (int i = 0; i < template.getModifierCount(); i++) {
+                addModifier(components, template.getAttribute(i).getKey().toString(), template.getModifier(i));
+            }
+            lore.addAll(template.getLore());
+            
+            if (template.getEnchantRolls().length > 0) {
+                NbtCompound levels = enchantmentLevels(components);
+                BuffManager.rollEnchantments(template, ThreadLocalRandom.current(),
+                    (enchant, level) -> levels.put(enchant.getKey().toString(), level));
+                bukkitValues.put(enchantedKey, rarity.getCode());
+            }
+        }
+        
+        NbtList loreTag = components.getList(LORE);
+        if (loreTag == null) {
+            loreTag = new NbtList(Nbt.STRING);
+            components.put(LORE, loreTag);
+        }
+        for (String line : lore) {
+            loreTag.add(toJson(line));
+        }
+    }
+    
+    private void addModifier(NbtCompound components, String attribute, AttributeModifier modifier) {
+        Object current = components.get(ATTRIBUTE_MODIFIERS);
+        NbtList modifiers;
+        if (current instanceof NbtCompound && ((NbtCompound) current).getList("modifiers") != null) {
+            modifiers = ((NbtCompound) current).getList("modifiers");
+        } else if (current instanceof NbtList) {
+            modifiers = (NbtList) current;
+        } else {
+            NbtCompound component = new NbtCompound();
+            modifiers = new NbtList(Nbt.COMPOUND);
+            component.put("modifiers", modifiers);
+            components.put(ATTRIBUTE_MODIFIERS, component);
+        }
+        modifiers.setElementType(Nbt.COMPOUND);
+        
+        NbtCompound entry = new NbtCompound();
+        entry.put("type", attribute);
+        entry.put("slot", slotName(modifier.getSlot()));
+        entry.put("uuid", toIntArray(modifier.getUniqueId()));
+        entry.put("name", modifier.getName());
+        entry.put("amount", modifier.getAmount());
+        entry.put("operation", operationName(modifier.getOperation()));
+        modifiers.add(entry);
+    }
+    
+    private NbtCompound enchantmentLevels(NbtCompound components) {
+        NbtCompound enchantments = components.getCompound(ENCHANTMENTS);
+        if (enchantments == null) {
+            enchantments = new NbtCompound();
+            components.put(ENCHANTMENTS, enchantments);
+        } else if (enchantments.getCompound("levels") == null && !enchantments.isEmpty()) {
+            return enchantments; // Short form: the component is the level map itself
+        }
+        return enchantments.getOrCreateCompound("levels");
+    }
+    
+    private static String slotName(EquipmentSlot slot) {
+        if (slot == null) {
+            return "any";
+        }
+        switch (slot) {
+            case HAND:
+                return "mainhand";
+            case OFF_HAND:
+                return "offhand";
+            case FEET:
+                return "feet";
+            case LEGS:
+                return "legs";
+            case CHEST:
+                return "chest";
+            case HEAD:
+                return "head";
+            default:
+                return "any";
+        }
+    }
+    
+    private static String operationName(AttributeModifier.Operation operation) {
+        switch (operation) {
+            case ADD_SCALAR:
+                return "add_multiplied_base";
+            case MULTIPLY_SCALAR_1:
+                return "add_multiplied_total";
+            default:
+                return "add_value";
+        }
+    }
+    
+    private static int[] toIntArray(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        return new int[] {(int) (most >> 32), (int) most, (int) (least >> 32), (int) least};
+    }
+    
+    /**
+     * Lore lines are stored as JSON text components; legacy color codes
+     * inside the text are kept, as Bukkit does for plain lore
+     */
+    private static String toJson(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 32).append("{\"italic\":false,\"text\":\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append("\"}").toString();
+    }
+}
\ No newline at end of file
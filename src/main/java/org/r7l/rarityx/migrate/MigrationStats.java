@@ -0,0 +1,20 @@
+package org.r7l.rarityx.migrate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress counters of a migration, updated by all worker threads
+ * 
+ * @author R7LRod
+ */
+final class MigrationStats {
+    
+    final LongAdder filesDone = new LongAdder();
+    final LongAdder filesFailed = new LongAdder();
+    final LongAdder filesSkipped = new LongAdder();
+    final LongAdder filesWritten = new LongAdder();
+    final LongAdder chunks = new LongAdder();
+    final LongAdder chunksSkipped = new LongAdder();
+    final LongAdder itemsScanned = new LongAdder();
+    final LongAdder itemsTagged = new LongAdder();
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+package org.r7l.rarityx.migrate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Minimal reader and writer for Minecraft's binary NBT format.
+ * <p>
+ * Tags map to Java types as follows: byte, short, int, long, float and
+ * double to their boxed types, byte/int/long arrays to {@code byte[]},
+ * {@code int[]} and {@code long[]}, strings to {@link String}, lists to
+ * {@link NbtList} and compounds to {@link NbtCompound}.
+ * 
+ * @author R7LRod
+ */
+final class Nbt {
+    
+    static final byte END = 0;
+    static final byte BYTE = 1;
+    static final byte SHORT = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte BYTE_ARRAY = 7;
+    static final byte STRING = 8;
+    static final byte LIST = 9;
+    static final byte COMPOUND = 10;
+    static final byte INT_ARRAY = 11;
+    static final byte LONG_ARRAY = 12;
+    
+    // Same limit as the game, guards against corrupt data
+    private static final int MAX_DEPTH = 512;
+    
+    private Nbt() {
+    }
+    
+    /**
+     * Read a named root compound
+     * @param in The input
+     * @return The root compound
+     * @throws IOException If the data is not a valid root compound
+     */
+    static NbtCompound readRoot(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type != COMPOUND) {
+            throw new IOException("Root tag is not a compound: " + type);
+        }
+        in.readUTF();
+        return readCompound(in, 0);
+    }
+    
+    /**
+     * Write a root compound with an empty name
+     * @param out The output
+     * @param root The root compound
+     * @throws IOException If writing fails
+     */
+    static void writeRoot(DataOutput out, NbtCompound root) throws IOException {
+        out.writeByte(COMPOUND);
+        out.writeUTF("");
+        writePayload(out, root, 0);
+    }
+    
+    private static NbtCompound readCompound(DataInput in, int depth) throws IOException {
+        NbtCompound compound = new NbtCompound();
+        byte type;
+        while ((type = in.readByte()) != END) {
+            String name = in.readUTF();
+            compound.put(name, readPayload(in, type, depth + 1));
+        }
+        return compound;
+    }
+    
+    private static Object readPayload(DataInput in, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+        
+        switch (type) {
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return in.readShort();
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case BYTE_ARRAY: {
+                byte[] array = new byte[checkLength(in.readInt())];
+                in.readFully(array);
+                return array;
+            }
+            case STRING:
+                return in.readUTF();
+            case LIST: {
+                byte elementType = in.readByte();
+                int length = Math.max(0, in.readInt());
+                NbtList list = new NbtList(elementType);
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(in, elementType, depth + 1));
+                }
+                return list;
+            }
+            case COMPOUND:
+                return readCompound(in, depth);
+            case INT_ARRAY: {
+                int[] array = new int[checkLength(in.readInt())];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readInt();
+                }
+                return array;
+            }
+            case LONG_ARRAY: {
+                long[] array = new long[checkLength(in.readInt())];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readLong();
+                }
+                return array;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type: " + type);
+        }
+    }
+    
+    private static void writePayload(DataOutput out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT nested too deeply");
+        }
+        
+        if (value instanceof Byte) {
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeDouble((Double) value);
+        } else if (value instanceof byte[]) {
+            byte[] array = (byte[]) value;
+            out.writeInt(array.length);
+            out.write(array);
+        } else if (value instanceof String) {
+            out.writeUTF((String) value);
+        } else if (value instanceof NbtList) {
+            NbtList list = (NbtList) value;
+            out.writeByte(list.isEmpty() ? list.getElementType() : typeOf(list.get(0)));
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writePayload(out, element, depth + 1);
+            }
+        } else if (value instanceof NbtCompound) {
+            for (Map.Entry<String, Object> entry : ((NbtCompound) value).entrySet()) {
+                out.writeByte(typeOf(entry.getValue()));
+                out.writeUTF(entry.getKey());
+                writePayload(out, entry.getValue(), depth + 1);
+            }
+            out.writeByte(END);
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            out.writeInt(array.length);
+            for (int element : array) {
+                out.writeInt(element);
+            }
+        } else if (value instanceof long[]) {
+            long[] array = (long[]) value;
+            out.writeInt(array.length);
+            for (long element : array) {
+                out.writeLong(element);
+            }
+        } else {
+            throw new IOException("Unsupported NBT value: " + value);
+        }
+    }
+    
+    /**
+     * Get the tag type for a Java value
+     */
+    static byte typeOf(Object value) throws IOException {
+        if (value instanceof Byte) return BYTE;
+        if (value instanceof Short) return SHORT;
+        if (value instanceof Integer) return INT;
+        if (value instanceof Long) return LONG;
+        if (value instanceof Float) return FLOAT;
+        if (value instanceof Double) return DOUBLE;
+        if (value instanceof byte[]) return BYTE_ARRAY;
+        if (value instanceof String) return STRING;
+        if (value instanceof NbtList) return LIST;
+        if (value instanceof NbtCompound) return COMPOUND;
+        if (value instanceof int[]) return INT_ARRAY;
+        if (value instanceof long[]) return LONG_ARRAY;
+        throw new IOException("Unsupported NBT value: " + value);
+    }
+    
+    private static int checkLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Negative NBT array length");
+        }
+        return length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package org.r7l.rarityx.migrate;
+
+import java.util.LinkedHashMap;
+
+/**
+ * NBT compound tag. Values are the Java types described in {@link Nbt}.
+ * 
+ * @author R7LRod
+ */
+final class NbtCompound extends LinkedHashMap<String, Object> {
+    
+    /**
+     * Get a child compound
+     * @param key The tag name
+     * @return The compound, or null if missing or of another type
+     */
+    NbtCompound getCompound(String key) {
+        Object value = get(key);
+        return value instanceof NbtCompound ? (NbtCompound) value : null;
+    }
+    
+    /**
+     * Get a child compound, creating it if missing
+     * @param key The tag name
+     * @return The existing or new compound
+     */
+    NbtCompound getOrCreateCompound(String key) {
+        NbtCompound compound = getCompound(key);
+        if (compound == null) {
+            compound = new NbtCompound();
+            put(key, compound);
+        }
+        return compound;
+    }
+    
+    /**
+     * Get a child list
+     * @param key The tag name
+     * @return The list, or null if missing or of another type
+     */
+    NbtList getList(String key) {
+        Object value = get(key);
+        return value instanceof NbtList ? (NbtList) value : null;
+    }
+    
+    /**
+     * Get a string value
+     * @param key The tag name
+     * @return The string, or null if missing or of another type
+     */
+    String getString(String key) {
+        Object value = get(key);
+        return value instanceof String ? (String) value : null;
+    }
+    
+    /**
+     * Get a numeric value
+     * @param key The tag name
+     * @param fallback Value returned if missing or not numeric
+     * @return The value as an int
+     */
+    int getInt(String key, int fallback) {
+        Object value = get(key);
+        return value instanceof Number ? ((Number) value).intValue() : fallback;
+    }
+}
\ No newline at end of file
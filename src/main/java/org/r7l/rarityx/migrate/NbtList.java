@@ -0,0 +1,33 @@
+package org.r7l.rarityx.migrate;
+
+import java.util.ArrayList;
+
+/**
+ * NBT list tag. Keeps the declared element type so empty lists round-trip.
+ * 
+ * @author R7LRod
+ */
+final class NbtList extends ArrayList<Object> {
+    
+    private byte elementType;
+    
+    NbtList(byte elementType) {
+        this.elementType = elementType;
+    }
+    
+    /**
+     * Get the tag type of the elements
+     * @return Tag type id
+     */
+    byte getElementType() {
+        return elementType;
+    }
+    
+    /**
+     * Set the tag type of the elements, used when adding to an empty list
+     * @param elementType Tag type id
+     */
+    void setElementType(byte elementType) {
+        this.elementType = elementType;
+    }
+}
\ No newline at end of file
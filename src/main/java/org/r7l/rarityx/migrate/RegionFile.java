@@ -0,0 +1,191 @@
+package org.r7l.rarityx.migrate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Anvil region file ({@code .mca}) holding up to 32x32 chunks.
+ * <p>
+ * The file is read through a read-only memory mapping. Chunks are kept in
+ * their stored, compressed form until decoded, and unchanged chunks are
+ * written back byte for byte.
+ * 
+ * @author R7LRod
+ */
+final class RegionFile {
+    
+    static final int CHUNKS = 1024;
+    private static final int SECTOR = 4096;
+    
+    private static final byte GZIP = 1;
+    private static final byte ZLIB = 2;
+    private static final byte NONE = 3;
+    
+    // Chunks larger than ~1 MiB are stored in a separate .mcc file
+    private static final int EXTERNAL_FLAG = 0x80;
+    
+    private final int[] timestamps = new int[CHUNKS];
+    private final byte[] compression = new byte[CHUNKS];
+    private final byte[][] payloads = new byte[CHUNKS][];
+    
+    private RegionFile() {
+    }
+    
+    /**
+     * Read a region file
+     * @param path The file to read
+     * @return The region
+     * @throws IOException If the file cannot be read or its header is corrupt
+     */
+    static RegionFile read(Path path) throws IOException {
+        RegionFile region = new RegionFile();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 2L * SECTOR) {
+                return region; // Empty or truncated header: no chunks
+            }
+            
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            for (int i = 0; i < CHUNKS; i++) {
+                int location = buffer.getInt(i * 4);
+                region.timestamps[i] = buffer.getInt(SECTOR + i * 4);
+                
+                long offset = (long) (location >>> 8) * SECTOR;
+                if (location == 0 || offset + 5 > size) {
+                    continue;
+                }
+                
+                int length = buffer.getInt((int) offset);
+                if (length < 1 || offset + 4 + length > size) {
+                    throw new IOException("Corrupt chunk " + i + " in " + path.getFileName());
+                }
+                
+                region.compression[i] = buffer.get((int) offset + 4);
+                byte[] payload = new byte[length - 1];
+                buffer.get((int) offset + 5, payload);
+                region.payloads[i] = payload;
+            }
+        }
+        return region;
+    }
+    
+    /**
+     * Check if a chunk slot holds data
+     * @param index Chunk index within the region
+     * @return True if present
+     */
+    boolean hasChunk(int index) {
+        return payloads[index] != null;
+    }
+    
+    /**
+     * Check if a chunk can be decoded by {@link #readChunk(int)}
+     * @param index Chunk index within the region
+     * @return False for external (.mcc) and LZ4-compressed chunks
+     */
+    boolean isReadable(int index) {
+        byte type = compression[index];
+        return (type & EXTERNAL_FLAG) == 0 && (type == GZIP || type == ZLIB || type == NONE);
+    }
+    
+    /**
+     * Decode a chunk
+     * @param index Chunk index within the region
+     * @return The chunk's root compound
+     * @throws IOException If the data is corrupt or uses an unsupported compression
+     */
+    NbtCompound readChunk(int index) throws IOException {
+        if (!isReadable(index)) {
+            throw new IOException("Unsupported chunk compression: " + compression[index]);
+        }
+        
+        InputStream in = new ByteArrayInputStream(payloads[index]);
+        if (compression[index] == GZIP) {
+            in = new GZIPInputStream(in);
+        } else if (compression[index] == ZLIB) {
+            in = new InflaterInputStream(in);
+        }
+        try (DataInputStream data = new DataInputStream(in)) {
+            return Nbt.readRoot(data);
+        }
+    }
+    
+    /**
+     * Replace a chunk, stored zlib-compressed
+     * @param index Chunk index within the region
+     * @param chunk The chunk's root compound
+     * @throws IOException If encoding fails
+     */
+    void writeChunk(int index, NbtCompound chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payloads[index] != null
+            ? payloads[index].length * 2 : SECTOR);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            Nbt.writeRoot(out, chunk);
+        }
+        
+        compression[index] = ZLIB;
+        payloads[index] = bytes.toByteArray();
+    }
+    
+    /**
+     * Write the region to a file, packing chunks into consecutive sectors
+     * @param path The file to write
+     * @throws IOException If writing fails or a chunk is too large for a region file
+     */
+    void write(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * SECTOR);
+        int sector = 2;
+        for (int i = 0; i < CHUNKS; i++) {
+            if (payloads[i] == null) {
+                continue;
+            }
+            
+            int sectors = sectorsFor(payloads[i].length);
+            if (sectors > 255) {
+                throw new IOException("Chunk " + i + " too large to store in " + path.getFileName());
+            }
+            header.putInt(i * 4, sector << 8 | sectors);
+            header.putInt(SECTOR + i * 4, timestamps[i]);
+            sector += sectors;
+        }
+        
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (int i = 0; i < CHUNKS; i++) {
+                if (payloads[i] == null) {
+                    continue;
+                }
+                
+                ByteBuffer chunk = ByteBuffer.allocate(sectorsFor(payloads[i].length) * SECTOR);
+                chunk.putInt(payloads[i].length + 1);
+                chunk.put(compression[i]);
+                chunk.put(payloads[i]);
+                chunk.rewind();
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        }
+    }
+    
+    private static int sectorsFor(int payloadLength) {
+        return (payloadLength + 5 + SECTOR - 1) / SECTOR;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,502 @@
+package org.r7l.rarityx.migrate;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.world.WorldInitEvent;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.metrics.TimedListeners;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Offline rarity assignment for stored worlds and player data.
+ * <p>
+ * Region files ({@code region/} and {@code entities/}) and player data are
+ * parsed directly on a worker pool, one file per task, without loading any
+ * chunk into the server. Only files the server is not using are touched:
+ * worlds that are not loaded, and player data of players who have not been
+ * online since the run started. Loaded worlds, which always include the
+ * primary world, are reached by {@linkplain #schedule scheduling} a run for
+ * the next start: the plugin loads at {@code STARTUP}, so
+ * {@link #runScheduled} migrates every world before the server loads any.
+ * A world that loads or a player who logs in during the run is skipped from
+ * then on, and a file modified after it was read is not written. Changed files replace the original through an atomic
+ * move. Completed files are recorded in a checkpoint so an interrupted run
+ * resumes where it left off.
+ * 
+ * @author R7LRod
+ */
+public final class WorldMigration {
+    
+    private static final String CHECKPOINT_FILE = "checkpoint.txt";
+    private static final String SCHEDULE_FILE = "scheduled.txt";
+    
+    private final RarityX plugin;
+    private final Logger logger;
+    private final Path serverRoot;
+    private final Path checkpoint;
+    private final boolean dryRun;
+    private final List<Path> files;
+    private final int total;
+    private final ItemMigrator migrator;
+    private final MigrationStats stats = new MigrationStats();
+    private final AtomicInteger remaining;
+    private final ExecutorService workers;
+    private final long startTime = System.nanoTime();
+    
+    // Files of these worlds and players are in use by the server, filled by the watcher
+    private final Set<Path> loadedWorlds = ConcurrentHashMap.newKeySet();
+    private final Set<String> seenPlayers = ConcurrentHashMap.newKeySet();
+    private final Watcher watcher = new Watcher();
+    
+    private volatile boolean cancelled;
+    private volatile boolean finished;
+    private BufferedWriter checkpointWriter;
+    
+    private WorldMigration(RarityX plugin, boolean dryRun, List<Path> files, Set<String> online,
+                           int threads) throws IOException {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.serverRoot = plugin.getServer().getWorldContainer().toPath().toAbsolutePath().normalize();
+        this.checkpoint = plugin.getDataFolder().toPath().resolve("migration").resolve(CHECKPOINT_FILE);
+        this.dryRun = dryRun;
+        this.files = files;
+        this.total = files.size();
+        this.migrator = new ItemMigrator(plugin.getRarityManager().getRarityKey().getNamespace(), stats);
+        this.remaining = new AtomicInteger(total);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "RarityX-Migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        seenPlayers.addAll(online);
+        
+        if (!dryRun) {
+            Files.createDirectories(checkpoint.getParent());
+            checkpointWriter = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+    
+    /**
+     * Discover the files to migrate and start the worker pool. Must be
+     * called on the main thread. Loaded worlds are refused, and players
+     * online now are skipped since the server will overwrite their data;
+     * both are handled by the chunk scan and join backfill instead, or by a
+     * run {@linkplain #schedule scheduled} for the next start.
+     * @param plugin The plugin instance
+     * @param dryRun If true, files are processed but nothing is written
+     * @param fresh If true, the checkpoint is discarded and all files are processed again
+     * @return The running migration
+     * @throws IOException If the world folders or checkpoint cannot be read
+     */
+    public static WorldMigration start(RarityX plugin, boolean dryRun, boolean fresh) throws IOException {
+        Path root = plugin.getServer().getWorldContainer().toPath().toAbsolutePath().normalize();
+        Path checkpoint = plugin.getDataFolder().toPath().resolve("migration").resolve(CHECKPOINT_FILE);
+        if (fresh && !dryRun) {
+            Files.deleteIfExists(checkpoint);
+        }
+        
+        Set<String> completed = new HashSet<>();
+        if (Files.isRegularFile(checkpoint)) {
+            completed.addAll(Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+        }
+        
+        Set<String> online = new HashSet<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            online.add(player.getUniqueId() + ".dat");
+        }
+        
+        // Region files of loaded worlds are open in the server and may be written at any time
+        List<World> worlds = plugin.getServer().getWorlds();
+        Set<Path> loaded = new HashSet<>();
+        for (World world : worlds) {
+            loaded.add(world.getWorldFolder().toPath().toAbsolutePath().normalize());
+            plugin.getLogger().info("Migration skips world " + world.getName() + " because it is loaded");
+        }
+        
+        List<Path> files = new ArrayList<>();
+        List<Path> folders;
+        try (Stream<Path> stream = Files.list(root)) {
+            folders = stream
+                .filter(folder -> Files.isRegularFile(folder.resolve("level.dat")))
+                .map(folder -> folder.toAbsolutePath().normalize())
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (Path folder : folders) {
+            if (loaded.contains(folder)) {
+                continue;
+            }
+            try (Stream<Path> stream = Files.walk(folder, 3)) {
+                files.addAll(stream
+                    .filter(path -> path.getFileName().toString().endsWith(".mca"))
+                    .filter(path -> isRegionFolder(path.getParent()))
+                    .sorted()
+                    .collect(Collectors.toList()));
+            }
+        }
+        
+        // Player data lives in the primary world's folder, which is loaded unless the run happens at startup
+        for (Path folder : folders) {
+            Path playerData = folder.resolve("playerdata");
+            if (!Files.isDirectory(playerData)) {
+                continue;
+            }
+            try (Stream<Path> stream = Files.list(playerData)) {
+                files.addAll(stream
+                    .filter(path -> path.getFileName().toString().endsWith(".dat"))
+                    .filter(path -> !online.contains(path.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList()));
+            }
+        }
+        
+        files.removeIf(path -> completed.contains(root.relativize(path).toString()));
+        
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        WorldMigration migration = new WorldMigration(plugin, dryRun, files, online, threads);
+        TimedListeners.register(migration.watcher, plugin);
+        migration.submitAll();
+        return migration;
+    }
+    
+    /**
+     * Schedule a migration for the next server start, when no world is loaded yet
+     * @param plugin The plugin instance
+     * @param dryRun If true, files are processed but nothing is written
+     * @param fresh If true, the checkpoint is discarded and all files are processed again
+     * @throws IOException If the schedule file cannot be written
+     */
+    public static void schedule(RarityX plugin, boolean dryRun, boolean fresh) throws IOException {
+        Path file = scheduleFile(plugin);
+        Files.createDirectories(file.getParent());
+        List<String> options = new ArrayList<>();
+        if (dryRun) {
+            options.add("dry-run");
+        }
+        if (fresh) {
+            options.add("fresh");
+        }
+        Files.write(file, options, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Remove a migration scheduled for the next start
+     * @param plugin The plugin instance
+     * @return True if one was scheduled
+     * @throws IOException If the schedule file cannot be deleted
+     */
+    public static boolean unschedule(RarityX plugin) throws IOException {
+        return Files.deleteIfExists(scheduleFile(plugin));
+    }
+    
+    /**
+     * Check if a migration is scheduled for the next start
+     * @param plugin The plugin instance
+     * @return True if one is scheduled
+     */
+    public static boolean isScheduled(RarityX plugin) {
+        return Files.isRegularFile(scheduleFile(plugin));
+    }
+    
+    /**
+     * Run the migration scheduled for this start, if any, and wait for it to
+     * end. Called from {@code onEnable}, which runs before any world loads,
+     * so the primary world, the nether and the end are migrated too. The
+     * schedule is removed first, so a run that fails is not repeated on
+     * every start; the checkpoint still lets a new one resume.
+     * @param plugin The plugin instance
+     * @return The finished migration, or null if none was scheduled
+     * @throws IOException If the world folders, checkpoint or schedule cannot be read
+     * @throws InterruptedException If the server thread is interrupted while waiting
+     */
+    public static WorldMigration runScheduled(RarityX plugin) throws IOException, InterruptedException {
+        Path file = scheduleFile(plugin);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        
+        List<String> options = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Files.delete(file);
+        plugin.getLogger().info("Running the migration scheduled for this start; worlds load once it ends");
+        
+        WorldMigration migration = start(plugin, options.contains("dry-run"), options.contains("fresh"));
+        migration.workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        return migration;
+    }
+    
+    private static Path scheduleFile(RarityX plugin) {
+        return plugin.getDataFolder().toPath().resolve("migration").resolve(SCHEDULE_FILE);
+    }
+    
+    private static boolean isRegionFolder(Path folder) {
+        if (folder == null) {
+            return false;
+        }
+        String name = folder.getFileName().toString();
+        return name.equals("region") || name.equals("entities");
+    }
+    
+    private void submitAll() {
+        logger.info("Migration started: " + total + " files" + (dryRun ? " (dry run)" : ""));
+        if (total == 0) {
+            workers.shutdown();
+            finish();
+            return;
+        }
+        for (Path file : files) {
+            workers.execute(() -> process(file));
+        }
+        workers.shutdown();
+    }
+    
+    private void process(Path file) {
+        if (!cancelled) {
+            String relative = serverRoot.relativize(file).toString();
+            try {
+                boolean changed = relative.endsWith(".dat") ? migratePlayerFile(file) : migrateRegionFile(file);
+                if (changed) {
+                    stats.filesWritten.increment();
+                }
+                if (!cancelled) {
+                    markCompleted(relative);
+                }
+            } catch (IOException | RuntimeException e) {
+                stats.filesFailed.increment();
+                logger.log(Level.WARNING, "Migration failed for " + relative + ": " + e.getMessage());
+            }
+            stats.filesDone.increment();
+        }
+        
+        // Cancelled tasks still count down, so the last one always reports
+        int left = remaining.decrementAndGet();
+        int done = total - left;
+        if (!cancelled && done * 10 / total != (done - 1) * 10 / total) {
+            logger.info("Migration progress: " + describe());
+        }
+        if (left == 0) {
+            finish();
+        }
+    }
+    
+    private boolean migrateRegionFile(Path file) throws IOException {
+        if (isInUse(file)) {
+            stats.filesSkipped.increment();
+            return false;
+        }
+        
+        FileTime modified = Files.getLastModifiedTime(file);
+        RegionFile region = RegionFile.read(file);
+        boolean changed = false;
+        
+        for (int i = 0; i < RegionFile.CHUNKS && !cancelled; i++) {
+            if (!region.hasChunk(i)) {
+                continue;
+            }
+            if (!region.isReadable(i)) {
+                stats.chunksSkipped.increment(); // External or LZ4 chunk, kept as is
+                continue;
+            }
+            
+            NbtCompound chunk = region.readChunk(i);
+            if (migrator.migrateChunk(chunk)) {
+                region.writeChunk(i, chunk);
+                changed = true;
+            }
+        }
+        
+        if (!changed || cancelled) {
+            return false;
+        }
+        return dryRun || writeAtomically(file, modified, region::write);
+    }
+    
+    private boolean migratePlayerFile(Path file) throws IOException {
+        if (isInUse(file)) {
+            stats.filesSkipped.increment();
+            return false;
+        }
+        
+        FileTime modified = Files.getLastModifiedTime(file);
+        NbtCompound player;
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)));
+             DataInputStream data = new DataInputStream(in)) {
+            player = Nbt.readRoot(data);
+        }
+        
+        if (!migrator.migratePlayer(player)) {
+            return false;
+        }
+        
+        return dryRun || writeAtomically(file, modified, target -> {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(target)));
+                 DataOutputStream data = new DataOutputStream(out)) {
+                Nbt.writeRoot(data, player);
+            }
+        });
+    }
+    
+    /**
+     * Check if the server may be using a file: it belongs to a world loaded
+     * since the run started, or to a player who has logged in since
+     */
+    private boolean isInUse(Path file) {
+        if (file.getParent() != null && file.getParent().getFileName().toString().equals("playerdata")) {
+            return seenPlayers.contains(file.getFileName().toString());
+        }
+        for (Path world : loadedWorlds) {
+            if (file.startsWith(world)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Write to a temporary file next to the original and move it over the
+     * original, unless the server started using the file or it was modified
+     * after it was read
+     * @return True if the file was replaced
+     */
+    private boolean writeAtomically(Path file, FileTime modified, FileWriter writer) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".rarityx.tmp");
+        writer.write(temp);
+        
+        if (isInUse(file) || !Files.getLastModifiedTime(file).equals(modified)) {
+            Files.deleteIfExists(temp);
+            stats.filesSkipped.increment();
+            return false;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+    
+    private synchronized void markCompleted(String relative) throws IOException {
+        if (checkpointWriter != null) {
+            checkpointWriter.write(relative);
+            checkpointWriter.newLine();
+            checkpointWriter.flush();
+        }
+    }
+    
+    private synchronized void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        
+        if (checkpointWriter != null) {
+            try {
+                checkpointWriter.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close migration checkpoint", e);
+            }
+        }
+        
+        plugin.getServer().getScheduler().runTask(plugin, () -> HandlerList.unregisterAll(watcher));
+        logger.info("Migration " + (cancelled ? "cancelled" : "finished") + ": " + describe());
+        if (stats.filesSkipped.sum() > 0) {
+            logger.info("Files that were in use are left to the chunk scan and join backfill;"
+                + " run the migration again to retry them");
+        }
+    }
+    
+    /**
+     * Stop after the files currently being processed; queued files are
+     * skipped. Completed files stay in the checkpoint, so the next run
+     * resumes from there.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Check if the migration is still running
+     * @return True until every file is processed or skipped
+     */
+    public boolean isRunning() {
+        return !finished;
+    }
+    
+    /**
+     * Check if this is a dry run
+     * @return True if nothing is written
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+    
+    /**
+     * Get a one-line progress summary
+     * @return Progress text
+     */
+    public String describe() {
+        long seconds = (System.nanoTime() - startTime) / 1_000_000_000L;
+        return stats.filesDone.sum() + "/" + total + " files, "
+            + stats.filesWritten.sum() + " changed, "
+            + stats.filesFailed.sum() + " failed, "
+            + stats.filesSkipped.sum() + " in use, "
+            + stats.chunks.sum() + " chunks ("
+            + stats.chunksSkipped.sum() + " skipped), "
+            + stats.itemsTagged.sum() + "/" + stats.itemsScanned.sum() + " items tagged, "
+            + seconds + "s";
+    }
+    
+    @FunctionalInterface
+    private interface FileWriter {
+        void write(Path target) throws IOException;
+    }
+    
+    /**
+     * Records worlds and players the server starts using during the run
+     */
+    private final class Watcher implements Listener {
+        
+        // Fires before any chunk of the world is loaded
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onWorldInit(WorldInitEvent event) {
+            loadedWorlds.add(event.getWorld().getWorldFolder().toPath().toAbsolutePath().normalize());
+        }
+        
+        // Fires before the player's data file is read
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+            seenPlayers.add(event.getUniqueId() + ".dat");
+        }
+    }
+}
\ No newline at end of file
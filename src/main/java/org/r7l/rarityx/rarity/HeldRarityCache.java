@@ -0,0 +1,128 @@
+package org.r7l.rarityx.rarity;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.r7l.rarityx.items.MaterialClassifier;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rarity of the item each player holds in the main hand.
+ * <p>
+ * Combat and mining handlers run for every hit and broken block, so the
+ * held item's rarity is kept per player and only read from the item again
+ * after the held item may have changed: entries are updated on held-slot
+ * changes and dropped on hand swaps and inventory changes. Each entry also
+ * records the held stack, and a lookup only hits if the stack in hand is
+ * {@linkplain ItemStack#isSimilar similar} to it. The server compares the
+ * underlying stack first, so the usual hit costs a type check and a
+ * reference comparison; a stack swapped in by another plugin, a command or
+ * a dispenser is compared by its components, which include the stored
+ * rarity. Only a rarity rewritten in place on the very stack in hand goes
+ * unnoticed, so code doing that must {@linkplain #invalidate invalidate}
+ * the player.
+ * 
+ * @author R7LRod
+ */
+public final class HeldRarityCache {
+    
+    private final ConcurrentHashMap<UUID, Held> entries = new ConcurrentHashMap<>();
+    private final Function<ItemStack, Rarity> loader;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * @param loader Function reading the rarity from an item
+     */
+    HeldRarityCache(Function<ItemStack, Rarity> loader) {
+        this.loader = loader;
+    }
+    
+    /**
+     * Get the rarity of the item in a player's main hand
+     * @param player The player
+     * @return The rarity, or null if the held item has none
+     */
+    public Rarity get(Player player) {
+        ItemStack item = player.getInventory().getItemInMainHand();
+        Material type = item == null ? Material.AIR : item.getType();
+        
+        Held held = entries.get(player.getUniqueId());
+        if (held != null && held.matches(item, type)) {
+            hits.increment();
+            return held.rarity;
+        }
+        
+        misses.increment();
+        return update(player, item);
+    }
+    
+    /**
+     * Record the item a player is about to hold in the main hand. Pass the
+     * stack returned by the inventory rather than a copy, so later lookups
+     * match it by reference instead of by its components.
+     * @param player The player
+     * @param item The new main-hand item
+     * @return Its rarity, or null if it has none
+     */
+    public Rarity update(Player player, ItemStack item) {
+        Material type = item == null ? Material.AIR : item.getType();
+        Rarity rarity = MaterialClassifier.current().isEligible(type) ? loader.apply(item) : null;
+        entries.put(player.getUniqueId(), new Held(item, type, rarity));
+        return rarity;
+    }
+    
+    /**
+     * Drop a player's entry after the held item may have changed
+     * @param playerId The player's UUID
+     */
+    public void invalidate(UUID playerId) {
+        entries.remove(playerId);
+    }
+    
+    /**
+     * Drop all entries
+     */
+    public void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Get the number of lookups answered from the cache
+     * @return Hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * Get the number of lookups that had to read the item
+     * @return Miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Reset the hit and miss counters
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+    
+    /**
+     * @param item The stack the rarity was read from, a view of the slot's stack when read from the inventory
+     */
+    private record Held(ItemStack item, Material type, Rarity rarity) {
+        
+        boolean matches(ItemStack current, Material currentType) {
+            return type == currentType && (type == Material.AIR || item.isSimilar(current));
+        }
+    }
+}
\ No newline at end of file
@@ -2,36 +2,112 @@ package org.r7l.rarityx.rarity;
 
 import org.bukkit.ChatColor;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
- * Enum representing different rarity levels
+ * A rarity tier, defined in the {@code rarities} config section.
+ * <p>
+ * Each tier has two ids: {@link #getId()} is its dense position in the
+ * active registry, used to index per-tier arrays, and {@link #getCode()} is
+ * the byte stored on items, which stays the same when tiers are added,
+ * removed or reordered. The registry is an immutable snapshot published
+ * through a volatile reference and replaced on {@code /rarityx reload};
+ * it carries the {@link RaritySettings} built for its tiers, so both are
+ * always replaced together.
  * 
  * @author R7LRod
  */
-public enum Rarity {
-    COMMON("Common", ChatColor.WHITE, 60.0, 1.0),
-    UNCOMMON("Uncommon", ChatColor.GREEN, 25.0, 1.1),
-    RARE("Rare", ChatColor.BLUE, 10.0, 1.25),
-    EPIC("Epic", ChatColor.DARK_PURPLE, 4.0, 1.5),
-    MYTHIC("Mythic", ChatColor.GOLD, 1.0, 2.0);
+public final class Rarity {
+    
+    /**
+     * Lore line format; {@code {rarity}} is replaced by the formatted name
+     */
+    public static final String DEFAULT_LORE_FORMAT = "§7Rarity: {rarity}";
+    
+    // Built-in tiers, used when config.yml has no rarities section
+    private static final List<Rarity> DEFAULTS = List.of(
+        new Rarity(0, "common", 0, "Common", ChatColor.WHITE, 60.0, 1.0, 0.5, "common", DEFAULT_LORE_FORMAT),
+        new Rarity(1, "uncommon", 1, "Uncommon", ChatColor.GREEN, 25.0, 1.1, 1.5, "uncommon", DEFAULT_LORE_FORMAT),
+        new Rarity(2, "rare", 2, "Rare", ChatColor.BLUE, 10.0, 1.25, 2.0, "rare", DEFAULT_LORE_FORMAT),
+        new Rarity(3, "epic", 3, "Epic", ChatColor.DARK_PURPLE, 4.0, 1.5, 2.5, "epic", DEFAULT_LORE_FORMAT),
+        new Rarity(4, "mythic", 4, "Mythic", ChatColor.GOLD, 1.0, 2.0, 3.0, "mythic", DEFAULT_LORE_FORMAT)
+    );
+    
+    private static volatile Registry registry = new Registry(DEFAULTS, Collections.emptyMap(),
+        RaritySettings.defaults(DEFAULTS));
     
+    private final int id;
+    private final String key;
+    private final byte code;
     private final String displayName;
     private final ChatColor color;
-    private final double weight; // Probability weight for random assignment
-    private final double multiplier; // Buff multiplier
+    private final double weight; // Default probability weight for random assignment
+    private final double multiplier; // Default buff multiplier
+    private final double valuableBoost; // Default weight factor on valuable special items
+    private final String buffProfile;
+    private final String formattedName;
+    private final String loreLine;
     
     /**
-     * Constructor for Rarity enum
-     * 
+     * @param id Dense registry index
+     * @param key Config key, lower case
+     * @param code Byte stored on items, 0-255
      * @param displayName The display name of the rarity
      * @param color The color associated with the rarity
-     * @param weight The probability weight for random assignment
-     * @param multiplier The buff multiplier applied to items
+     * @param weight Default probability weight for random assignment
+     * @param multiplier Default buff multiplier applied to items
+     * @param valuableBoost Default weight factor on valuable special items
+     * @param buffProfile Name of the buff profile applied to items
+     * @param loreFormat Lore line format, see {@link #DEFAULT_LORE_FORMAT}
      */
-    Rarity(String displayName, ChatColor color, double weight, double multiplier) {
+    private Rarity(int id, String key, int code, String displayName, ChatColor color, double weight,
+                   double multiplier, double valuableBoost, String buffProfile, String loreFormat) {
+        this.id = id;
+        this.key = key;
+        this.code = (byte) code;
         this.displayName = displayName;
         this.color = color;
         this.weight = weight;
         this.multiplier = multiplier;
+        this.valuableBoost = valuableBoost;
+        this.buffProfile = buffProfile;
+        this.formattedName = color + displayName + ChatColor.RESET;
+        this.loreLine = loreFormat.replace("{rarity}", formattedName);
+    }
+    
+    /**
+     * Create a tier definition for {@link #install(List, Map)}
+     * @param id Dense registry index, equal to the tier's position in the installed list
+     * @param key Config key
+     * @param code Byte stored on items, 0-255
+     * @param displayName The display name of the rarity
+     * @param color The color associated with the rarity
+     * @param weight Default probability weight
+     * @param multiplier Default buff multiplier
+     * @param valuableBoost Default weight factor on valuable special items
+     * @param buffProfile Name of the buff profile applied to items
+     * @param loreFormat Lore line format, see {@link #DEFAULT_LORE_FORMAT}
+     * @return The tier
+     */
+    public static Rarity define(int id, String key, int code, String displayName, ChatColor color, double weight,
+                                double multiplier, double valuableBoost, String buffProfile, String loreFormat) {
+        if (code < 0 || code > 255) {
+            throw new IllegalArgumentException("Rarity code must be between 0 and 255: " + code);
+        }
+        return new Rarity(id, key.toLowerCase(), code, displayName, color, weight, multiplier, valuableBoost,
+            buffProfile.toLowerCase(), loreFormat);
+    }
+    
+    /**
+     * Get the config key of the rarity
+     * @return Lower-case key
+     */
+    public String getKey() {
+        return key;
     }
     
     /**
@@ -51,52 +127,220 @@ public enum Rarity {
     }
     
     /**
-     * Get the probability weight of the rarity
+     * Get the configured probability weight of the rarity
      * @return Weight value
      */
     public double getWeight() {
-        return weight;
+        return RaritySettings.current().getWeight(this);
     }
     
     /**
-     * Get the multiplier for this rarity
+     * Get the configured multiplier for this rarity
      * @return Multiplier value
      */
     public double getMultiplier() {
+        return RaritySettings.current().getMultiplier(this);
+    }
+    
+    /**
+     * Get the tier's own probability weight, used when rarity-weights has no value
+     * @return Default weight value
+     */
+    public double getDefaultWeight() {
+        return weight;
+    }
+    
+    /**
+     * Get the tier's own multiplier, used when rarity-multipliers has no value
+     * @return Default multiplier value
+     */
+    public double getDefaultMultiplier() {
         return multiplier;
     }
     
+    /**
+     * Get the default weight factor for this rarity on valuable special items
+     * @return Default boost
+     */
+    public double getDefaultValuableBoost() {
+        return valuableBoost;
+    }
+    
+    /**
+     * Get the name of the buff profile applied to items of this rarity
+     * @return Lower-case profile name
+     */
+    public String getBuffProfile() {
+        return buffProfile;
+    }
+    
     /**
      * Get the formatted display text with color
      * @return Colored rarity text
      */
     public String getFormattedName() {
-        return color + displayName + ChatColor.RESET;
+        return formattedName;
+    }
+    
+    /**
+     * Get the lore line shown on items of this rarity
+     * @return Formatted lore line
+     */
+    public String getLoreLine() {
+        return loreLine;
+    }
+    
+    /**
+     * Get the dense index of this rarity in the active registry
+     * @return Index, from 0 to {@code getAll().size() - 1}
+     */
+    public int getId() {
+        return id;
+    }
+    
+    /**
+     * Get the compact code this rarity is stored under on items
+     * @return Storage code
+     */
+    public byte getCode() {
+        return code;
+    }
+    
+    @Override
+    public String toString() {
+        return key;
+    }
+    
+    /**
+     * Get rarity from its registry index
+     * @param id The dense index
+     * @return Rarity or null if the index is out of range
+     */
+    public static Rarity fromId(int id) {
+        Rarity[] byId = registry.byId;
+        return id >= 0 && id < byId.length ? byId[id] : null;
+    }
+    
+    /**
+     * Get rarity from the code stored on an item
+     * @param code The storage code
+     * @return Rarity or null if no tier uses the code
+     */
+    public static Rarity fromCode(byte code) {
+        return registry.byCode[code & 0xFF];
     }
     
     /**
      * Get rarity from string name (case-insensitive)
-     * @param name The rarity name
-     * @return Rarity enum or null if not found
+     * @param name The rarity key, display name or alias
+     * @return Rarity or null if not found
      */
     public static Rarity fromString(String name) {
-        for (Rarity rarity : values()) {
-            if (rarity.name().equalsIgnoreCase(name) || rarity.displayName.equalsIgnoreCase(name)) {
+        return registry.lookup.get(name);
+    }
+    
+    /**
+     * Check if a lore line is the rarity line of any active tier
+     * @param line The lore line
+     * @return True if it was written for a rarity
+     */
+    public static boolean isLoreLine(String line) {
+        return registry.loreLines.contains(line);
+    }
+    
+    /**
+     * Replace the extra names accepted by {@link #fromString(String)}.
+     * Keys and display names are always accepted and cannot be overridden.
+     * @param aliases Alias names mapped to the rarity they stand for
+     */
+    public static void setAliases(Map<String, Rarity> aliases) {
+        Registry current = registry;
+        registry = new Registry(current.all, aliases, current.settings);
+    }
+    
+    /**
+     * Publish a new set of tiers together with their settings, in one volatile write
+     * @param rarities Tiers ordered from most common to rarest, each with its position as id
+     * @param aliases Alias names mapped to the rarity they stand for
+     * @param settings Settings built for exactly these tiers
+     */
+    public static void install(List<Rarity> rarities, Map<String, Rarity> aliases, RaritySettings settings) {
+        if (!settings.isFor(rarities)) {
+            throw new IllegalArgumentException("Rarity settings were built for other tiers");
+        }
+        registry = new Registry(rarities, aliases, settings);
+    }
+    
+    /**
+     * Get the settings published with the current registry
+     * @return Current settings
+     */
+    static RaritySettings settings() {
+        return registry.settings;
+    }
+    
+    /**
+     * Get the built-in tiers
+     * @return Unmodifiable list of the five default rarities
+     */
+    public static List<Rarity> getDefaults() {
+        return DEFAULTS;
+    }
+    
+    /**
+     * Get the built-in tier with a key
+     * @param key The key, e.g. "epic"
+     * @return The built-in tier, or null if none uses the key
+     */
+    public static Rarity getDefault(String key) {
+        for (Rarity rarity : DEFAULTS) {
+            if (rarity.key.equalsIgnoreCase(key)) {
                 return rarity;
             }
         }
         return null;
     }
     
+    /**
+     * Get all rarities without copying
+     * @return Unmodifiable list of all rarities, in id order
+     */
+    public static List<Rarity> getAll() {
+        return registry.all;
+    }
+    
     /**
      * Get total weight of all rarities
      * @return Total weight
      */
     public static double getTotalWeight() {
-        double total = 0;
-        for (Rarity rarity : values()) {
-            total += rarity.weight;
+        return RaritySettings.current().getTotalWeight();
+    }
+    
+    /**
+     * Immutable lookup tables for one set of tiers
+     */
+    private static final class Registry {
+        
+        private final List<Rarity> all;
+        private final Rarity[] byId;
+        private final Rarity[] byCode = new Rarity[256];
+        private final RarityLookup lookup;
+        private final Set<String> loreLines = new HashSet<>();
+        private final RaritySettings settings;
+        
+        Registry(List<Rarity> rarities, Map<String, Rarity> aliases, RaritySettings settings) {
+            this.all = List.copyOf(rarities);
+            this.settings = settings;
+            this.byId = all.toArray(new Rarity[0]);
+            for (int i = 0; i < byId.length; i++) {
+                if (byId[i].id != i) {
+                    throw new IllegalArgumentException("Rarity " + byId[i].key + " has id " + byId[i].id + ", expected " + i);
+                }
+                byCode[byId[i].code & 0xFF] = byId[i];
+                loreLines.add(byId[i].loreLine);
+            }
+            this.lookup = RarityLookup.of(byId, aliases);
         }
-        return total;
     }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package org.r7l.rarityx.rarity;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of resolved rarities, scoped to one server tick.
+ * <p>
+ * Entries are keyed by the identity of the {@link ItemStack} object looked
+ * up, so the handlers of an event that pass the same stack around read its
+ * meta once. Other plugins, commands and the server can rewrite an item's
+ * meta without RarityX noticing, and the API offers no cheap way to detect
+ * that, so an entry is only used in the tick it was stored in; the owner
+ * calls {@link #nextTick()} once per tick. Rarity writes made through
+ * {@link RarityManager} update their entry directly. The table is
+ * direct-mapped, so a colliding insert evicts the previous entry and the
+ * cache never grows past its capacity.
+ * <p>
+ * Items without a rarity are cached too, since untagged items are the common
+ * case on the hot path. Entries are immutable and the table is replaced as a
+ * whole when resized, so lookups are safe from any thread; writers simply
+ * replace slots.
+ * 
+ * @author R7LRod
+ */
+public class RarityCache {
+    
+    private volatile Entry[] entries;
+    private volatile int tick;
+    private final Function<ItemStack, Rarity> loader;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    /**
+     * Create a new cache
+     * @param capacity Maximum number of entries, rounded up to a power of two
+     * @param loader Function reading the rarity from an item on a cache miss
+     */
+    public RarityCache(int capacity, Function<ItemStack, Rarity> loader) {
+        this.entries = new Entry[tableSize(capacity)];
+        this.loader = loader;
+    }
+    
+    /**
+     * Get the rarity of an item, loading and caching it on a miss
+     * @param item The item to look up (must not be null)
+     * @return The cached or freshly loaded rarity, or null if the item has none
+     */
+    public Rarity get(ItemStack item) {
+        Entry[] table = entries;
+        int current = tick;
+        int index = indexOf(item, table);
+        
+        Entry entry = table[index];
+        if (entry != null && entry.key == item && entry.tick == current) {
+            hits.increment();
+            return entry.rarity;
+        }
+        
+        misses.increment();
+        Rarity rarity = loader.apply(item);
+        store(table, index, item, current, rarity);
+        return rarity;
+    }
+    
+    /**
+     * Record the rarity of an item after it was written
+     * @param item The item that was modified
+     * @param rarity The rarity now stored on the item, or null if removed
+     */
+    public void put(ItemStack item, Rarity rarity) {
+        Entry[] table = entries;
+        store(table, indexOf(item, table), item, tick, rarity);
+    }
+    
+    /**
+     * Drop any cached entry for an item
+     * @param item The item to invalidate
+     */
+    public void invalidate(ItemStack item) {
+        Entry[] table = entries;
+        int index = indexOf(item, table);
+        Entry entry = table[index];
+        if (entry != null && entry.key == item) {
+            table[index] = null;
+        }
+    }
+    
+    /**
+     * Remove all cached entries
+     */
+    public void clear() {
+        Entry[] table = entries;
+        for (int i = 0; i < table.length; i++) {
+            table[i] = null;
+        }
+    }
+    
+    /**
+     * Expire every entry stored so far. Called once per server tick.
+     */
+    public void nextTick() {
+        tick++;
+    }
+    
+    /**
+     * Change the capacity, dropping all entries if it changes
+     * @param capacity Maximum number of entries, rounded up to a power of two
+     */
+    public void resize(int capacity) {
+        int size = tableSize(capacity);
+        if (size != entries.length) {
+            entries = new Entry[size];
+        }
+    }
+    
+    /**
+     * Get the number of lookups answered from the cache
+     * @return Hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /**
+     * Get the number of lookups that had to read the item
+     * @return Miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Get the number of entries of the current tick replaced by colliding inserts
+     * @return Eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    /**
+     * Get the fraction of lookups answered from the cache
+     * @return Hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Reset the hit, miss and eviction counters
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+    
+    /**
+     * Get the maximum number of entries
+     * @return Capacity
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+    
+    private void store(Entry[] table, int index, ItemStack item, int current, Rarity rarity) {
+        Entry previous = table[index];
+        if (previous != null && previous.key != item && previous.tick == current) {
+            evictions.increment();
+        }
+        table[index] = new Entry(item, current, rarity);
+    }
+    
+    private static int indexOf(ItemStack item, Entry[] table) {
+        int hash = System.identityHashCode(item);
+        return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+    
+    private static int tableSize(int capacity) {
+        int size = 16;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+    
+    /**
+     * Immutable cache slot
+     */
+    private static final class Entry {
+        private final ItemStack key;
+        private final int tick;
+        private final Rarity rarity;
+        
+        private Entry(ItemStack key, int tick, Rarity rarity) {
+            this.key = key;
+            this.tick = tick;
+            this.rarity = rarity;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package org.r7l.rarityx.rarity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable case-insensitive name table for {@link Rarity#fromString(String)}.
+ * <p>
+ * Keys are stored case-folded in an open-addressing table, and lookups fold
+ * the query character by character while hashing and comparing, so a lookup
+ * is a single probe sequence that never allocates.
+ * 
+ * @author R7LRod
+ */
+final class RarityLookup {
+    
+    private final String[] keys;
+    private final Rarity[] values;
+    private final int mask;
+    
+    private RarityLookup(Map<String, Rarity> entries) {
+        int size = 16;
+        while (size < entries.size() * 2) {
+            size <<= 1;
+        }
+        
+        this.keys = new String[size];
+        this.values = new Rarity[size];
+        this.mask = size - 1;
+        
+        for (Map.Entry<String, Rarity> entry : entries.entrySet()) {
+            int index = hash(entry.getKey()) & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+        }
+    }
+    
+    /**
+     * Build a table covering rarity names, display names and extra aliases.
+     * Built-in names always win over aliases that collide with them.
+     * @param rarities All rarities
+     * @param aliases Additional names mapped to rarities
+     * @return The lookup table
+     */
+    static RarityLookup of(Rarity[] rarities, Map<String, Rarity> aliases) {
+        Map<String, Rarity> entries = new LinkedHashMap<>();
+        
+        for (Rarity rarity : rarities) {
+            entries.put(fold(rarity.getKey()), rarity);
+            entries.put(fold(rarity.getDisplayName()), rarity);
+        }
+        
+        for (Map.Entry<String, Rarity> alias : aliases.entrySet()) {
+            if (alias.getKey() != null && alias.getValue() != null) {
+                entries.putIfAbsent(fold(alias.getKey()), alias.getValue());
+            }
+        }
+        
+        return new RarityLookup(entries);
+    }
+    
+    /**
+     * Look up a rarity by name, ignoring case
+     * @param name The name to look up
+     * @return The matching rarity, or null if none
+     */
+    Rarity get(String name) {
+        if (name == null) {
+            return null;
+        }
+        
+        int index = hash(name) & mask;
+        String key;
+        while ((key = keys[index]) != null) {
+            if (matches(key, name)) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+    
+    private static boolean matches(String foldedKey, String name) {
+        int length = foldedKey.length();
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (foldedKey.charAt(i) != fold(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + fold(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+    
+    private static String fold(String name) {
+        char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(name.charAt(i));
+        }
+        return new String(chars);
+    }
+    
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
\ No newline at end of file
@@ -2,61 +2,113 @@ package org.r7l.rarityx.rarity;
 
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.block.TileState;
+import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.config.ConfigManager;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.metrics.Metrics;
+import org.r7l.rarityx.metrics.Timer;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Manages rarity assignment and item manipulation
+ * <p>
+ * Thread-safe. Rolling a rarity is pure: {@link #rollRarity(Material, RandomGenerator)}
+ * only reads the immutable {@link RaritySettings} snapshot, so it can run on
+ * worker threads such as migration jobs, region threads or async loot
+ * generation. The tier registry and its settings are published together in
+ * one volatile write on reload, so a reader never pairs tiers with settings
+ * from another reload; a rarity obtained before a reload is matched to the
+ * new settings by its storage code. Buff templates are rebuilt right after,
+ * so a worker racing a reload may apply the previous buffs of a tier once;
+ * code that needs one configuration throughout captures the snapshots, as
+ * the world migration does. Methods that take an {@link ItemStack}, {@link Player} or
+ * {@link TileState} mutate that object and must be called by the thread that
+ * owns it; the shared caches they update are safe for concurrent use.
+ * Random draws use {@link ThreadLocalRandom}, so threads never contend on a
+ * shared seed.
  * 
  * @author R7LRod
  */
 public class RarityManager {
     
+    /**
+     * Version of the on-item rarity encoding, part of the storage key name
+     */
+    public static final int STORAGE_VERSION = 2;
+    
+    /**
+     * Key name of the stored rarity id, under the plugin's namespace
+     */
+    public static final String RARITY_KEY = "rarity_v" + STORAGE_VERSION;
+    
+    /**
+     * Key name of the rarity name written by versions before the id encoding
+     */
+    public static final String LEGACY_RARITY_KEY = "rarity";
+    
+    private static final Timer GET_RARITY_TIMER = Metrics.timer("RarityManager.getRarity");
+    private static final Timer APPLY_RARITY_TIMER = Metrics.timer("RarityManager.applyRarity");
+    
     private final RarityX plugin;
     private final NamespacedKey rarityKey;
-    private final Random random;
-    
-    // Materials that should have higher chance for better rarities
-    private final Set<Material> valuableMaterials;
+    private final NamespacedKey legacyRarityKey;
+    private final NamespacedKey backfillKey;
+    private final NamespacedKey containerScanKey;
+    private final RarityCache rarityCache;
+    private final HeldRarityCache heldRarityCache;
     
     public RarityManager(RarityX plugin) {
         this.plugin = plugin;
-        this.rarityKey = new NamespacedKey(plugin, "rarity");
-        this.random = new Random();
+        this.rarityKey = new NamespacedKey(plugin, RARITY_KEY);
+        this.legacyRarityKey = new NamespacedKey(plugin, LEGACY_RARITY_KEY);
+        this.backfillKey = new NamespacedKey(plugin, "backfill");
+        this.containerScanKey = new NamespacedKey(plugin, "container_scan");
+        this.rarityCache = new RarityCache(plugin.getConfigManager().getRarityCacheSize(), this::readRarity);
+        Metrics.registerHitRatio("rarity-cache", rarityCache::getHits, rarityCache::getMisses,
+            rarityCache::resetStats);
+        this.heldRarityCache = new HeldRarityCache(this::getRarity);
+        Metrics.registerHitRatio("held-rarity", heldRarityCache::getHits, heldRarityCache::getMisses,
+            heldRarityCache::resetStats);
         
-        // Initialize valuable materials
-        this.valuableMaterials = new HashSet<>();
-        initializeValuableMaterials();
+        plugin.getServer().getScheduler().runTaskTimer(plugin, rarityCache::nextTick, 1L, 1L);
+        
+        reload(plugin.getConfigManager());
+        plugin.getConfigManager().addReloadListener(this::reload);
     }
     
     /**
-     * Initialize materials that should have higher rarity chances
+     * Rebuild state derived from the configuration.
+     * Called on startup and after {@code /rarityx reload}.
+     * @param configManager The configuration manager
      */
-    private void initializeValuableMaterials() {
-        // Diamond tools and armor
-        valuableMaterials.addAll(Arrays.asList(
-            Material.DIAMOND_SWORD, Material.DIAMOND_PICKAXE, Material.DIAMOND_AXE,
-            Material.DIAMOND_SHOVEL, Material.DIAMOND_HOE, Material.DIAMOND_HELMET,
-            Material.DIAMOND_CHESTPLATE, Material.DIAMOND_LEGGINGS, Material.DIAMOND_BOOTS
-        ));
+    private void reload(ConfigManager configManager) {
+        
+        // Tier definitions, with config-defined names for commands and parsing
+        List<Rarity> rarities = configManager.getRarityTiers(plugin.getLogger());
+        Map<String, Rarity> aliases = new HashMap<>();
+        for (Rarity rarity : rarities) {
+            for (String alias : configManager.getRarityAliases(rarity)) {
+                aliases.put(alias, rarity);
+            }
+        }
         
-        // Netherite tools and armor
-        valuableMaterials.addAll(Arrays.asList(
-            Material.NETHERITE_SWORD, Material.NETHERITE_PICKAXE, Material.NETHERITE_AXE,
-            Material.NETHERITE_SHOVEL, Material.NETHERITE_HOE, Material.NETHERITE_HELMET,
-            Material.NETHERITE_CHESTPLATE, Material.NETHERITE_LEGGINGS, Material.NETHERITE_BOOTS
-        ));
+        // Weights, multipliers and per-material samplers, published with the tiers in one write
+        Rarity.install(rarities, aliases, RaritySettings.load(configManager, rarities));
         
-        // Special items
-        valuableMaterials.addAll(Arrays.asList(
-            Material.ELYTRA, Material.TRIDENT, Material.CROSSBOW, Material.BOW,
-            Material.SHIELD, Material.TOTEM_OF_UNDYING
-        ));
+        // Cached rarities may refer to replaced tiers, and eligibility may have changed
+        rarityCache.resize(configManager.getRarityCacheSize());
+        rarityCache.clear();
+        heldRarityCache.clear();
     }
     
     /**
@@ -73,6 +125,72 @@ public class RarityManager {
         return setRarity(item, rarity);
     }
     
+    /**
+     * Roll a random rarity for an item and apply it together with its buffs.
+     * The item's meta is read and written exactly once.
+     * @param item The item to roll
+     * @return The modified item
+     */
+    public ItemStack roll(ItemStack item) {
+        if (item == null || item.getType() == Material.AIR) {
+            return item;
+        }
+        
+        return applyRarity(item, generateRandomRarity(item.getType()));
+    }
+    
+    /**
+     * Roll rarities for a batch of generated items such as loot or mob drops,
+     * replacing entries in place. The classifier and rarity settings are read
+     * once for the whole batch, and each rolled item's meta is written once;
+     * items without meta are known to have no rarity and are not read.
+     * @param items Mutable list of items
+     * @return Number of items that received a rarity
+     */
+    public int rollAll(List<ItemStack> items) {
+        MaterialClassifier classifier = MaterialClassifier.current();
+        RaritySettings settings = RaritySettings.current();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int assigned = 0;
+        
+        for (ListIterator<ItemStack> iterator = items.listIterator(); iterator.hasNext(); ) {
+            ItemStack item = iterator.next();
+            if (item == null || !classifier.isEligible(item.getType()) || (item.hasItemMeta() && hasRarity(item))) {
+                continue;
+            }
+            
+            iterator.set(applyRarity(item, settings.getSampler(item.getType()).sample(random)));
+            assigned++;
+        }
+        return assigned;
+    }
+    
+    /**
+     * Set a specific rarity and its buffs on an item with a single meta write
+     * @param item The item to modify
+     * @param rarity The rarity to assign
+     * @return The modified item
+     */
+    public ItemStack applyRarity(ItemStack item, Rarity rarity) {
+        if (item == null || item.getType() == Material.AIR || rarity == null) {
+            return item;
+        }
+        
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return item;
+        }
+        
+        long start = Metrics.start();
+        writeRarity(meta, rarity);
+        BuffManager.applyBuffs(meta, item.getType(), rarity);
+        
+        item.setItemMeta(meta);
+        rarityCache.put(item, rarity);
+        APPLY_RARITY_TIMER.stop(start);
+        return item;
+    }
+    
     /**
      * Set a specific rarity to an item
      * @param item The item to modify
@@ -89,15 +207,26 @@ public class RarityManager {
             return item;
         }
         
+        writeRarity(meta, rarity);
+        
+        item.setItemMeta(meta);
+        rarityCache.put(item, rarity);
+        return item;
+    }
+    
+    /**
+     * Store a rarity and its lore in an item meta
+     * @param meta The meta to modify
+     * @param rarity The rarity to store
+     */
+    private void writeRarity(ItemMeta meta, Rarity rarity) {
         // Store rarity in persistent data
         PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
-        dataContainer.set(rarityKey, PersistentDataType.STRING, rarity.name());
+        dataContainer.set(rarityKey, PersistentDataType.BYTE, rarity.getCode());
+        dataContainer.remove(legacyRarityKey);
         
         // Update lore
         updateItemLore(meta, rarity);
-        
-        item.setItemMeta(meta);
-        return item;
     }
     
     /**
@@ -110,19 +239,58 @@ public class RarityManager {
             return null;
         }
         
+        long start = Metrics.start();
+        Rarity rarity = rarityCache.get(item);
+        GET_RARITY_TIMER.stop(start);
+        return rarity;
+    }
+    
+    /**
+     * Read the rarity stored on an item, bypassing the cache
+     * @param item The item to read
+     * @return The stored rarity, or null if none
+     */
+    private Rarity readRarity(ItemStack item) {
         ItemMeta meta = item.getItemMeta();
         if (meta == null) {
             return null;
         }
         
         PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
-        String rarityString = dataContainer.get(rarityKey, PersistentDataType.STRING);
+        Byte rarityCode = dataContainer.get(rarityKey, PersistentDataType.BYTE);
+        
+        if (rarityCode != null) {
+            return Rarity.fromCode(rarityCode);
+        }
+        
+        return migrateLegacyRarity(item, meta, dataContainer);
+    }
+    
+    /**
+     * Read a rarity stored in the pre-v2 STRING format and rewrite it
+     * in the compact format
+     * @param item The item being read
+     * @param meta The item's meta
+     * @param dataContainer The meta's persistent data
+     * @return The legacy rarity, or null if the item has none
+     */
+    private Rarity migrateLegacyRarity(ItemStack item, ItemMeta meta, PersistentDataContainer dataContainer) {
+        String rarityString = dataContainer.get(legacyRarityKey, PersistentDataType.STRING);
         
         if (rarityString == null) {
             return null;
         }
         
-        return Rarity.fromString(rarityString);
+        Rarity rarity = Rarity.fromString(rarityString);
+        if (rarity == null) {
+            return null; // Leave unknown values untouched
+        }
+        
+        dataContainer.remove(legacyRarityKey);
+        dataContainer.set(rarityKey, PersistentDataType.BYTE, rarity.getCode());
+        item.setItemMeta(meta);
+        
+        return rarity;
     }
     
     /**
@@ -134,6 +302,17 @@ public class RarityManager {
         return getRarity(item) != null;
     }
     
+    /**
+     * Get the rarity of the item in a player's main hand from the per-player
+     * cache, without reading item meta unless the held item changed. The cache
+     * is only kept in sync while {@code buffs.enable-special-effects} is on.
+     * @param player The player
+     * @return The rarity, or null if the held item has none
+     */
+    public Rarity getHeldRarity(Player player) {
+        return heldRarityCache.get(player);
+    }
+    
     /**
      * Remove rarity from an item
      * @param item The item to modify
@@ -152,70 +331,84 @@ public class RarityManager {
         // Remove rarity from persistent data
         PersistentDataContainer dataContainer = meta.getPersistentDataContainer();
         dataContainer.remove(rarityKey);
+        dataContainer.remove(legacyRarityKey);
         
         // Remove rarity lore
         List<String> lore = meta.getLore();
-        if (lore != null) {
-            lore.removeIf(line -> line.contains("Rarity:"));
+        if (lore != null && removeRarityLore(lore)) {
             meta.setLore(lore);
         }
         
+        // Remove the buffs that came with the rarity
+        BuffManager.stripBuffs(meta);
+        
         item.setItemMeta(meta);
+        rarityCache.put(item, null);
         return item;
     }
     
+    /**
+     * Check if a player's inventory still needs a rarity backfill. Players
+     * are stamped with the storage version and the configured backfill
+     * revision, so a returning player is only rescanned after either changes.
+     * @param player The player to check
+     * @return True if the inventory should be scanned
+     */
+    public boolean needsBackfill(Player player) {
+        int[] stamp = player.getPersistentDataContainer().get(backfillKey, PersistentDataType.INTEGER_ARRAY);
+        return stamp == null || stamp.length < 2
+            || stamp[0] != STORAGE_VERSION
+            || stamp[1] != plugin.getConfigManager().getSettings().joinBackfillRevision();
+    }
+    
+    /**
+     * Record that a player's inventory has been fully backfilled
+     * @param player The player to stamp
+     */
+    public void markBackfilled(Player player) {
+        player.getPersistentDataContainer().set(backfillKey, PersistentDataType.INTEGER_ARRAY,
+            new int[] {STORAGE_VERSION, plugin.getConfigManager().getSettings().joinBackfillRevision()});
+    }
+    
+    /**
+     * Check if a container's contents still need rarities. Containers are
+     * stamped with the storage version once every slot has been processed.
+     * @param container The container's block state
+     * @return True if the contents should be scanned
+     */
+    public boolean needsContainerScan(TileState container) {
+        Byte stamp = container.getPersistentDataContainer().get(containerScanKey, PersistentDataType.BYTE);
+        return stamp == null || stamp != STORAGE_VERSION;
+    }
+    
+    /**
+     * Record that a container's contents have been scanned. The state must
+     * be updated afterwards for a snapshot to be written to the world.
+     * @param container The container's block state
+     */
+    public void markContainerScanned(TileState container) {
+        container.getPersistentDataContainer().set(containerScanKey, PersistentDataType.BYTE, (byte) STORAGE_VERSION);
+    }
+    
+    /**
+     * Roll a rarity for a material from the configured weights without touching
+     * any item. Pure computation, safe to call from any thread; apply the result
+     * with {@link #applyRarity(ItemStack, Rarity)} on the item's owning thread.
+     * @param material The material type
+     * @param random The random source, not shared with other threads
+     * @return A random rarity
+     */
+    public static Rarity rollRarity(Material material, RandomGenerator random) {
+        return RaritySettings.current().getSampler(material).sample(random);
+    }
+    
     /**
      * Generate a random rarity based on material type and weights
      * @param material The material type
      * @return A random rarity
      */
     private Rarity generateRandomRarity(Material material) {
-        double totalWeight = Rarity.getTotalWeight();
-        
-        // Adjust weights for valuable materials
-        Map<Rarity, Double> adjustedWeights = new HashMap<>();
-        
-        for (Rarity rarity : Rarity.values()) {
-            double weight = rarity.getWeight();
-            
-            // Increase chances for better rarities on valuable materials
-            if (valuableMaterials.contains(material)) {
-                switch (rarity) {
-                    case MYTHIC:
-                        weight *= 3.0; // 3x chance for mythic
-                        break;
-                    case EPIC:
-                        weight *= 2.5; // 2.5x chance for epic
-                        break;
-                    case RARE:
-                        weight *= 2.0; // 2x chance for rare
-                        break;
-                    case UNCOMMON:
-                        weight *= 1.5; // 1.5x chance for uncommon
-                        break;
-                    case COMMON:
-                        weight *= 0.5; // Half chance for common
-                        break;
-                }
-            }
-            
-            adjustedWeights.put(rarity, weight);
-        }
-        
-        // Calculate new total weight
-        double adjustedTotalWeight = adjustedWeights.values().stream().mapToDouble(Double::doubleValue).sum();
-        
-        double randomValue = random.nextDouble() * adjustedTotalWeight;
-        double currentWeight = 0;
-        
-        for (Rarity rarity : Rarity.values()) {
-            currentWeight += adjustedWeights.get(rarity);
-            if (randomValue <= currentWeight) {
-                return rarity;
-            }
-        }
-        
-        return Rarity.COMMON; // Fallback
+        return rollRarity(material, ThreadLocalRandom.current());
     }
     
     /**
@@ -230,20 +423,60 @@ public class RarityManager {
         }
         
         // Remove existing rarity lore
-        lore.removeIf(line -> line.contains("Rarity:"));
+        removeRarityLore(lore);
         
         // Add new rarity lore at the end
         lore.add("");
-        lore.add("§7Rarity: " + rarity.getFormattedName());
+        lore.add(rarity.getLoreLine());
         
         meta.setLore(lore);
     }
     
     /**
-     * Get the NamespacedKey used for rarity data
+     * Remove rarity lines and the blank separator line added before each of them
+     * @param lore The lore to modify
+     * @return True if any line was removed
+     */
+    private boolean removeRarityLore(List<String> lore) {
+        boolean changed = false;
+        for (int i = lore.size() - 1; i >= 0; i--) {
+            String line = lore.get(i);
+            if (!line.contains("Rarity:") && !Rarity.isLoreLine(line)) {
+                continue;
+            }
+            
+            lore.remove(i);
+            if (i > 0 && lore.get(i - 1).isEmpty()) {
+                lore.remove(--i);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * Get the per-player held-rarity cache. Code that changes a player's
+     * items outside an inventory event should invalidate the player.
+     * @return HeldRarityCache instance
+     */
+    public HeldRarityCache getHeldRarityCache() {
+        return heldRarityCache;
+    }
+    
+    /**
+     * Get the NamespacedKey used for rarity data.
+     * Values are stored as {@link PersistentDataType#BYTE} rarity codes.
      * @return The rarity key
      */
     public NamespacedKey getRarityKey() {
         return rarityKey;
     }
+    
+    /**
+     * Get the cache backing {@link #getRarity(ItemStack)}
+     * @return The rarity cache
+     */
+    public RarityCache getRarityCache() {
+        return rarityCache;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package org.r7l.rarityx.rarity;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Immutable weighted rarity sampler using Vose's alias method.
+ * <p>
+ * Tables are built once from a weight per rarity; drawing a rarity costs a
+ * single uniform random value and two array reads, with no allocation.
+ * Samplers hold no mutable state and can be shared between threads; each
+ * thread passes its own random source.
+ * 
+ * @author R7LRod
+ */
+public final class RaritySampler {
+    
+    private final Rarity[] outcomes;
+    private final double[] probability;
+    private final int[] alias;
+    
+    private RaritySampler(Rarity[] outcomes, double[] probability, int[] alias) {
+        this.outcomes = outcomes;
+        this.probability = probability;
+        this.alias = alias;
+    }
+    
+    /**
+     * Build a sampler from per-rarity weights
+     * @param outcomes The rarities, in id order
+     * @param weights Weight of each rarity, indexed by {@link Rarity#getId()};
+     *                negative values are treated as zero
+     * @return The sampler
+     */
+    public static RaritySampler of(Rarity[] outcomes, double[] weights) {
+        int n = outcomes.length;
+        if (weights.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " weights, got " + weights.length);
+        }
+        
+        double total = 0;
+        for (double weight : weights) {
+            total += Math.max(0, weight);
+        }
+        
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        
+        // Degenerate distribution: always roll the first rarity
+        if (!(total > 0) || Double.isInfinite(total)) {
+            probability[0] = 1.0;
+            return new RaritySampler(outcomes, probability, alias);
+        }
+        
+        // Scale weights so the average column holds exactly 1.0
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        
+        for (int i = 0; i < n; i++) {
+            scaled[i] = Math.max(0, weights[i]) * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            
+            probability[less] = scaled[less];
+            alias[less] = more;
+            
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        
+        // Remaining columns are full (up to rounding error)
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+        
+        return new RaritySampler(outcomes, probability, alias);
+    }
+    
+    /**
+     * Draw a rarity from a uniform value
+     * @param uniform A value in [0, 1)
+     * @return The sampled rarity
+     */
+    public Rarity sample(double uniform) {
+        double scaled = uniform * outcomes.length;
+        int column = (int) scaled;
+        if (column >= outcomes.length) {
+            column = outcomes.length - 1;
+        }
+        return scaled - column < probability[column] ? outcomes[column] : outcomes[alias[column]];
+    }
+    
+    /**
+     * Draw a rarity using the given random source
+     * @param random The random source, e.g. {@link java.util.concurrent.ThreadLocalRandom#current()}
+     *               or a {@link java.util.SplittableRandom} owned by the calling task
+     * @return The sampled rarity
+     */
+    public Rarity sample(RandomGenerator random) {
+        return sample(random.nextDouble());
+    }
+}
\ No newline at end of file
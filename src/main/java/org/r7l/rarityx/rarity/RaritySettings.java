@@ -0,0 +1,227 @@
+package org.r7l.rarityx.rarity;
+
+import org.bukkit.Material;
+import org.r7l.rarityx.config.ConfigManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the rarity tuning values from config.yml.
+ * <p>
+ * A snapshot is built for one list of tiers on startup and on
+ * {@code /rarityx reload}, and published together with that tier registry
+ * by {@link Rarity#install(List, Map, RaritySettings)} through a single
+ * volatile reference, so the registry and settings never belong to
+ * different reloads. Readers fetch {@link #current()} once and use that
+ * instance for the whole operation. A rarity from an earlier registry is
+ * matched to this snapshot by its storage code.
+ * 
+ * @author R7LRod
+ */
+public final class RaritySettings {
+    
+    // Diamond tools and armor
+    private static final Set<Material> DIAMOND_GEAR = Collections.unmodifiableSet(EnumSet.of(
+        Material.DIAMOND_SWORD, Material.DIAMOND_PICKAXE, Material.DIAMOND_AXE,
+        Material.DIAMOND_SHOVEL, Material.DIAMOND_HOE, Material.DIAMOND_HELMET,
+        Material.DIAMOND_CHESTPLATE, Material.DIAMOND_LEGGINGS, Material.DIAMOND_BOOTS
+    ));
+    
+    // Netherite tools and armor
+    private static final Set<Material> NETHERITE_GEAR = Collections.unmodifiableSet(EnumSet.of(
+        Material.NETHERITE_SWORD, Material.NETHERITE_PICKAXE, Material.NETHERITE_AXE,
+        Material.NETHERITE_SHOVEL, Material.NETHERITE_HOE, Material.NETHERITE_HELMET,
+        Material.NETHERITE_CHESTPLATE, Material.NETHERITE_LEGGINGS, Material.NETHERITE_BOOTS
+    ));
+    
+    // Special items
+    private static final Set<Material> SPECIAL_ITEMS = Collections.unmodifiableSet(EnumSet.of(
+        Material.ELYTRA, Material.TRIDENT, Material.CROSSBOW, Material.BOW,
+        Material.SHIELD, Material.TOTEM_OF_UNDYING
+    ));
+    
+    private final Rarity[] rarities;
+    private final double[] weights;
+    private final double[] multipliers;
+    private final double totalWeight;
+    private final RaritySampler standardSampler;
+    private final Map<Material, RaritySampler> materialSamplers;
+    
+    private RaritySettings(Rarity[] rarities, double[] weights, double[] multipliers, boolean valuableEnabled,
+                           double[] valuableBoosts, double diamondMultiplier, double netheriteMultiplier) {
+        this.rarities = rarities;
+        this.weights = weights;
+        this.multipliers = multipliers;
+        this.totalWeight = Arrays.stream(weights).sum();
+        this.standardSampler = RaritySampler.of(rarities, weights);
+        this.materialSamplers = new EnumMap<>(Material.class);
+        
+        if (valuableEnabled) {
+            RaritySampler diamondSampler = RaritySampler.of(rarities, scaleAboveCommon(weights, diamondMultiplier));
+            RaritySampler netheriteSampler = RaritySampler.of(rarities, scaleAboveCommon(weights, netheriteMultiplier));
+            RaritySampler specialSampler = RaritySampler.of(rarities, scale(weights, valuableBoosts));
+            
+            for (Material material : DIAMOND_GEAR) {
+                materialSamplers.put(material, diamondSampler);
+            }
+            for (Material material : NETHERITE_GEAR) {
+                materialSamplers.put(material, netheriteSampler);
+            }
+            for (Material material : SPECIAL_ITEMS) {
+                materialSamplers.put(material, specialSampler);
+            }
+        }
+    }
+    
+    /**
+     * Get the active snapshot, the one installed with the current tier registry
+     * @return Current settings
+     */
+    public static RaritySettings current() {
+        return Rarity.settings();
+    }
+    
+    /**
+     * Build a snapshot from the plugin configuration
+     * @param config The configuration manager
+     * @param tiers The tiers the snapshot is for, in id order
+     * @return New settings, to be installed together with the tiers
+     */
+    public static RaritySettings load(ConfigManager config, List<Rarity> tiers) {
+        int count = tiers.size();
+        double[] weights = new double[count];
+        double[] multipliers = new double[count];
+        double[] valuableBoosts = new double[count];
+        
+        for (Rarity rarity : tiers) {
+            weights[rarity.getId()] = config.getRarityWeight(rarity);
+            multipliers[rarity.getId()] = config.getRarityMultiplier(rarity);
+            valuableBoosts[rarity.getId()] = config.getValuableRarityBoost(rarity);
+        }
+        
+        return new RaritySettings(tiers.toArray(new Rarity[0]), weights, multipliers,
+            config.isValuableMaterialsEnabled(), valuableBoosts, config.getDiamondMultiplier(),
+            config.getNetheriteMultiplier());
+    }
+    
+    /**
+     * Build a snapshot from the tiers' own default values
+     * @param tiers The tiers the snapshot is for, in id order
+     * @return Default settings
+     */
+    public static RaritySettings defaults(List<Rarity> tiers) {
+        int count = tiers.size();
+        double[] weights = new double[count];
+        double[] multipliers = new double[count];
+        double[] valuableBoosts = new double[count];
+        
+        for (Rarity rarity : tiers) {
+            weights[rarity.getId()] = rarity.getDefaultWeight();
+            multipliers[rarity.getId()] = rarity.getDefaultMultiplier();
+            valuableBoosts[rarity.getId()] = rarity.getDefaultValuableBoost();
+        }
+        
+        return new RaritySettings(tiers.toArray(new Rarity[0]), weights, multipliers, true, valuableBoosts, 2.0, 3.0);
+    }
+    
+    /**
+     * Check if this snapshot was built for a list of tiers
+     * @param tiers The tiers, in id order
+     * @return True if the snapshot holds exactly these tier instances
+     */
+    boolean isFor(List<Rarity> tiers) {
+        if (tiers.size() != rarities.length) {
+            return false;
+        }
+        for (int i = 0; i < rarities.length; i++) {
+            if (tiers.get(i) != rarities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Get the probability weight of a rarity
+     * @param rarity The rarity
+     * @return Weight value, the tier's default if it is not in this snapshot
+     */
+    public double getWeight(Rarity rarity) {
+        int index = indexOf(rarity);
+        return index >= 0 ? weights[index] : rarity.getDefaultWeight();
+    }
+    
+    /**
+     * Get the buff multiplier of a rarity
+     * @param rarity The rarity
+     * @return Multiplier value, the tier's default if it is not in this snapshot
+     */
+    public double getMultiplier(Rarity rarity) {
+        int index = indexOf(rarity);
+        return index >= 0 ? multipliers[index] : rarity.getDefaultMultiplier();
+    }
+    
+    /**
+     * Get the total weight of all rarities
+     * @return Total weight
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+    
+    /**
+     * Get the sampler used to roll rarities for a material
+     * @param material The material being rolled
+     * @return Sampler for the material's class
+     */
+    public RaritySampler getSampler(Material material) {
+        RaritySampler sampler = materialSamplers.get(material);
+        return sampler != null ? sampler : standardSampler;
+    }
+    
+    /**
+     * Find a rarity's index in this snapshot. Ids are only meaningful within one
+     * registry, so a rarity read before a reload is matched by its storage code.
+     * @return The index, or -1 if no tier in this snapshot has the rarity's code
+     */
+    private int indexOf(Rarity rarity) {
+        int id = rarity.getId();
+        if (id < rarities.length && rarities[id] == rarity) {
+            return id;
+        }
+        for (int i = 0; i < rarities.length; i++) {
+            if (rarities[i].getCode() == rarity.getCode()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Multiply each weight by the factor at the same index
+     */
+    private static double[] scale(double[] weights, double[] factors) {
+        double[] scaled = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            scaled[i] = weights[i] * factors[i];
+        }
+        return scaled;
+    }
+    
+    /**
+     * Multiply every weight except the lowest rarity's by a factor
+     */
+    private static double[] scaleAboveCommon(double[] weights, double factor) {
+        double[] scaled = weights.clone();
+        for (int i = 1; i < scaled.length; i++) {
+            scaled[i] *= factor;
+        }
+        return scaled;
+    }
+}
\ No newline at end of file
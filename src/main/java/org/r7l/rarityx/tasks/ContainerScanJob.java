@@ -0,0 +1,135 @@
+package org.r7l.rarityx.tasks;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.Container;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Assigns rarities to the contents of a chunk's containers, one slot per step.
+ * <p>
+ * The job keeps block positions, not the states captured at chunk load.
+ * Each container's state is read from the world once when the job reaches
+ * it, and its live inventory is used for all of its slots; between steps
+ * only the block type is checked, so a broken or replaced container is
+ * skipped. Reading a state copies the whole block entity, so a second read
+ * is only made to stamp the container once all its slots are processed,
+ * which skips it on later chunk loads. The job ends if the chunk unloads or
+ * it is {@linkplain #cancel() cancelled}; unstamped containers are picked up
+ * again the next time the chunk loads.
+ * 
+ * @author R7LRod
+ */
+public final class ContainerScanJob implements TickBudgetQueue.Job {
+    
+    private final Chunk chunk;
+    private final RarityManager rarityManager;
+    private final Block[] blocks;
+    private final Material[] types;
+    private final Consumer<ContainerScanJob> onFinish;
+    private boolean cancelled;
+    private int container;
+    private Inventory inventory;
+    private int slot;
+    private int assigned;
+    
+    /**
+     * @param chunk The chunk holding the containers
+     * @param rarityManager The rarity manager
+     * @param containers Container states from the chunk load, used only for their position and type
+     * @param onFinish Receives the job once when it ends, whether it finished or was abandoned
+     */
+    public ContainerScanJob(Chunk chunk, RarityManager rarityManager, List<? extends BlockState> containers,
+                            Consumer<ContainerScanJob> onFinish) {
+        this.chunk = chunk;
+        this.rarityManager = rarityManager;
+        this.blocks = new Block[containers.size()];
+        this.types = new Material[containers.size()];
+        this.onFinish = onFinish;
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = containers.get(i).getBlock();
+            types[i] = containers.get(i).getType();
+        }
+    }
+    
+    @Override
+    public boolean step() {
+        if (cancelled || !chunk.isLoaded() || container >= blocks.length) {
+            return finish();
+        }
+        
+        // Skip containers broken or replaced since the chunk loaded or the last step
+        Block block = blocks[container];
+        if (block.getType() != types[container]) {
+            return next();
+        }
+        
+        if (inventory == null) {
+            BlockState state = block.getState();
+            if (!(state instanceof Container) || !rarityManager.needsContainerScan((Container) state)) {
+                return next(); // Stamped by another job
+            }
+            
+            // Placed states return the live inventory. A double chest's inventory
+            // covers both halves; each half is its own container
+            Container current = (Container) state;
+            inventory = current instanceof Chest ? ((Chest) current).getBlockInventory() : current.getInventory();
+            return false;
+        }
+        
+        if (slot < inventory.getSize()) {
+            int index = slot++;
+            ItemStack item = inventory.getItem(index);
+            if (item != null && MaterialClassifier.current().isEligible(item.getType()) && !rarityManager.hasRarity(item)) {
+                inventory.setItem(index, rarityManager.roll(item));
+                assigned++;
+            }
+            return false;
+        }
+        
+        // The first state still holds the items as they were and would write them back
+        // on update, so the stamp goes on a state read after the last slot was written
+        BlockState state = block.getState();
+        if (state instanceof Container) {
+            rarityManager.markContainerScanned((Container) state);
+            state.update(false, false);
+        }
+        return next();
+    }
+    
+    /**
+     * Stop the job at its next step, e.g. when its chunk unloads
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Get the number of items that received a rarity so far
+     * @return Assigned item count
+     */
+    public int getAssigned() {
+        return assigned;
+    }
+    
+    private boolean next() {
+        inventory = null;
+        slot = 0;
+        container++;
+        return container >= blocks.length && finish();
+    }
+    
+    private boolean finish() {
+        onFinish.accept(this);
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package org.r7l.rarityx.tasks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.r7l.rarityx.items.MaterialClassifier;
+import org.r7l.rarityx.rarity.RarityManager;
+
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Assigns rarities to a player's inventory and ender chest, one slot per step.
+ * <p>
+ * Slots are read when they are reached, so items the player moves while the
+ * job runs are still handled correctly, and only slots that actually change
+ * are written back. The player is looked up by UUID on every step, so the job
+ * never holds on to a {@link Player} from an earlier login; it ends when the
+ * player is offline or it is {@linkplain #cancel() cancelled}.
+ * 
+ * @author R7LRod
+ */
+public final class InventoryBackfillJob implements TickBudgetQueue.Job {
+    
+    private final UUID playerId;
+    private final RarityManager rarityManager;
+    private final ObjIntConsumer<Player> onComplete;
+    private boolean cancelled;
+    private int inventory;
+    private int slot;
+    private int assigned;
+    
+    /**
+     * @param playerId The player to process
+     * @param rarityManager The rarity manager
+     * @param onComplete Receives the player and the number of assigned items once the whole
+     *                   inventory is processed; not called if the job is cancelled or the
+     *                   player logs out first
+     */
+    public InventoryBackfillJob(UUID playerId, RarityManager rarityManager, ObjIntConsumer<Player> onComplete) {
+        this.playerId = playerId;
+        this.rarityManager = rarityManager;
+        this.onComplete = onComplete;
+    }
+    
+    @Override
+    public boolean step() {
+        // Abandon the job if it was cancelled or the player logged out
+        Player player = cancelled ? null : Bukkit.getPlayer(playerId);
+        if (player == null) {
+            return true;
+        }
+        
+        Inventory current = inventory == 0 ? player.getInventory() : player.getEnderChest();
+        if (slot >= current.getSize()) {
+            if (++inventory > 1) {
+                onComplete.accept(player, assigned);
+                return true;
+            }
+            slot = 0;
+            return false;
+        }
+        
+        int index = slot++;
+        ItemStack item = current.getItem(index);
+        
+        if (item != null && MaterialClassifier.current().isEligible(item.getType()) && !rarityManager.hasRarity(item)) {
+            current.setItem(index, rarityManager.roll(item));
+            rarityManager.getHeldRarityCache().invalidate(playerId);
+            assigned++;
+        }
+        return false;
+    }
+    
+    /**
+     * Stop the job at its next step without calling the completion callback
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Get the number of items that received a rarity so far
+     * @return Assigned item count
+     */
+    public int getAssigned() {
+        return assigned;
+    }
+}
\ No newline at end of file
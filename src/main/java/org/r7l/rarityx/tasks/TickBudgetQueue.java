@@ -0,0 +1,96 @@
+package org.r7l.rarityx.tasks;
+
+import org.r7l.rarityx.metrics.Metrics;
+import org.r7l.rarityx.metrics.Timer;
+
+import java.util.ArrayDeque;
+
+/**
+ * Main-thread work queue limited to a time budget per tick.
+ * <p>
+ * Run it every tick with the Bukkit scheduler. Each run steps the queued
+ * jobs round-robin, one unit of work at a time, until the queue is empty or
+ * the budget is spent; the rest continues on the next tick. Not thread-safe:
+ * submit and run only from the main thread.
+ * 
+ * @author R7LRod
+ */
+public final class TickBudgetQueue implements Runnable {
+    
+    /**
+     * Incremental unit of work
+     */
+    @FunctionalInterface
+    public interface Job {
+        
+        /**
+         * Do one small piece of work
+         * @return True when the job is finished
+         */
+        boolean step();
+    }
+    
+    private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+    private final Timer timer;
+    private long budgetNanos;
+    
+    /**
+     * @param name Name used for the queue's timer in {@code /rarityx stats}
+     * @param budgetMillis Time budget per tick in milliseconds
+     */
+    public TickBudgetQueue(String name, double budgetMillis) {
+        this.timer = Metrics.timer("TickBudgetQueue." + name);
+        setBudget(budgetMillis);
+    }
+    
+    /**
+     * Change the time budget per tick
+     * @param budgetMillis Time budget in milliseconds
+     */
+    public void setBudget(double budgetMillis) {
+        this.budgetNanos = Math.max(1L, (long) (budgetMillis * 1_000_000L));
+    }
+    
+    /**
+     * Queue a job
+     * @param job The job to run
+     */
+    public void submit(Job job) {
+        jobs.addLast(job);
+    }
+    
+    /**
+     * Get the number of unfinished jobs
+     * @return Queue length
+     */
+    public int size() {
+        return jobs.size();
+    }
+    
+    /**
+     * Drop all queued jobs
+     */
+    public void clear() {
+        jobs.clear();
+    }
+    
+    @Override
+    public void run() {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        long metricsStart = Metrics.start();
+        
+        do {
+            Job job = jobs.pollFirst();
+            if (!job.step()) {
+                jobs.addLast(job);
+            }
+        } while (!jobs.isEmpty() && System.nanoTime() - deadline < 0);
+        
+        timer.stop(metricsStart);
+    }
+}
\ No newline at end of file
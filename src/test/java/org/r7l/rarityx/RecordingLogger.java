@@ -0,0 +1,37 @@
+package org.r7l.rarityx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Logger that keeps warnings in memory, for tests of config parsing
+ * 
+ * @author R7LRod
+ */
+public final class RecordingLogger extends Logger {
+    
+    private final List<String> warnings = new ArrayList<>();
+    
+    public RecordingLogger() {
+        super("RarityX-Test", null);
+        setUseParentHandlers(false);
+    }
+    
+    @Override
+    public void log(LogRecord record) {
+        if (record.getLevel() == Level.WARNING) {
+            warnings.add(record.getMessage());
+        }
+    }
+    
+    /**
+     * Get the warnings logged so far
+     * @return Warning messages, in logging order
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+}
\ No newline at end of file
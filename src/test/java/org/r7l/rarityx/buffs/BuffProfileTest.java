@@ -0,0 +1,127 @@
+package org.r7l.rarityx.buffs;
+
+import org.bukkit.attribute.Attribute;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.EquipmentSlot;
+import org.junit.jupiter.api.Test;
+import org.r7l.rarityx.RecordingLogger;
+import org.r7l.rarityx.items.ItemCategory;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parsing of {@code buff-profiles} entries
+ * 
+ * @author R7LRod
+ */
+class BuffProfileTest {
+    
+    @Test
+    void fullProfileIsParsed() throws InvalidConfigurationException {
+        RecordingLogger logger = new RecordingLogger();
+        BuffProfile profile = load("Epic", String.join("\n",
+            "modifiers:",
+            "  - attribute: generic_attack_damage",
+            "    categories: [WEAPON, AXE]",
+            "    per-multiplier: 1.0",
+            "    of-base-damage: true",
+            "  - attribute: GENERIC_MAX_HEALTH",
+            "    categories: ARMOR",
+            "    slots: [CHEST]",
+            "    amount: 4",
+            "mining-speed-lore: [TOOL, AXE]",
+            "enchantments:",
+            "  - {chance: 0.75, max-level: 3}",
+            "  - {chance: 1.5, max-level: 0}",
+            "bonus-exp: 2.0",
+            "critical-hit:",
+            "  chance: 0.1",
+            "  damage: 1.2",
+            "  message: '{rarity} Strike!'"), logger);
+        
+        assertEquals("epic", profile.getName());
+        assertEquals(List.of(), logger.getWarnings());
+        
+        List<BuffProfile.ModifierRule> modifiers = profile.getModifiers();
+        assertEquals(2, modifiers.size());
+        BuffProfile.ModifierRule damage = modifiers.get(0);
+        assertEquals(Attribute.GENERIC_ATTACK_DAMAGE, damage.attribute());
+        assertEquals(Set.of(ItemCategory.WEAPON, ItemCategory.AXE), damage.categories());
+        assertNull(damage.slots());
+        assertEquals(1.0, damage.perMultiplier());
+        assertTrue(damage.ofBaseDamage());
+        assertEquals("rarityx_attack_damage", damage.modifierName());
+        BuffProfile.ModifierRule health = modifiers.get(1);
+        assertEquals(Set.of(ItemCategory.ARMOR), health.categories());
+        assertEquals(Set.of(EquipmentSlot.CHEST), health.slots());
+        assertEquals(4.0, health.amount());
+        assertFalse(health.ofBaseDamage());
+        
+        assertTrue(profile.hasMiningSpeedLore(ItemCategory.TOOL));
+        assertFalse(profile.hasMiningSpeedLore(ItemCategory.WEAPON));
+        assertEquals(List.of(new BuffProfile.EnchantRoll(0.75, 3), new BuffProfile.EnchantRoll(1.0, 1)),
+            profile.getEnchantments());
+        assertEquals(2.0, profile.getBonusExp());
+        assertEquals(0.1, profile.getCriticalChance());
+        assertEquals(1.2, profile.getCriticalDamage());
+        assertEquals("{rarity} Strike!", profile.getCriticalMessage());
+    }
+    
+    @Test
+    void emptyProfileHasNoBuffs() throws InvalidConfigurationException {
+        BuffProfile profile = load("common", "bonus-exp: 0", new RecordingLogger());
+        
+        assertEquals(List.of(), profile.getModifiers());
+        assertEquals(List.of(), profile.getEnchantments());
+        assertEquals(0.0, profile.getCriticalChance());
+        assertEquals(1.0, profile.getCriticalDamage());
+        assertNull(profile.getCriticalMessage());
+    }
+    
+    @Test
+    void overlappingModifiersAreSkipped() throws InvalidConfigurationException {
+        RecordingLogger logger = new RecordingLogger();
+        BuffProfile profile = load("rare", String.join("\n",
+            "modifiers:",
+            "  - {attribute: GENERIC_ATTACK_DAMAGE, categories: [WEAPON, AXE], amount: 1}",
+            "  - {attribute: GENERIC_ATTACK_DAMAGE, categories: [AXE, TOOL], amount: 2}",
+            "  - {attribute: GENERIC_ATTACK_DAMAGE, categories: [RANGED], amount: 3}",
+            "  - {attribute: GENERIC_ARMOR, categories: [ARMOR], slots: [HEAD], amount: 1}",
+            "  - {attribute: GENERIC_ARMOR, categories: [ARMOR], slots: [FEET], amount: 2}",
+            "  - {attribute: GENERIC_ARMOR, categories: [ARMOR], amount: 3}"), logger);
+        
+        List<BuffProfile.ModifierRule> modifiers = profile.getModifiers();
+        assertEquals(List.of(1.0, 3.0, 1.0, 2.0), modifiers.stream().map(BuffProfile.ModifierRule::amount).toList());
+        assertEquals(2, logger.getWarnings().size(), logger.getWarnings().toString());
+        assertTrue(logger.getWarnings().get(0).contains("duplicates"));
+    }
+    
+    @Test
+    void invalidModifiersAreSkippedWithAWarning() throws InvalidConfigurationException {
+        RecordingLogger logger = new RecordingLogger();
+        BuffProfile profile = load("broken", String.join("\n",
+            "modifiers:",
+            "  - {attribute: GENERIC_SPEEDINESS, categories: [WEAPON], amount: 1}",
+            "  - {attribute: GENERIC_ARMOR, categories: [GLOVES], amount: 1}",
+            "  - {attribute: GENERIC_ARMOR, amount: 1}",
+            "  - {attribute: GENERIC_LUCK, categories: [WEAPON, NONE, WAND], amount: 1}"), logger);
+        
+        assertEquals(1, profile.getModifiers().size());
+        assertEquals(Set.of(ItemCategory.WEAPON), profile.getModifiers().get(0).categories());
+        assertEquals(5, logger.getWarnings().size(), logger.getWarnings().toString());
+    }
+    
+    private static BuffProfile load(String name, String yaml, RecordingLogger logger)
+            throws InvalidConfigurationException {
+        YamlConfiguration section = new YamlConfiguration();
+        section.loadFromString(yaml);
+        return BuffProfile.load(name, section, logger);
+    }
+}
\ No newline at end of file
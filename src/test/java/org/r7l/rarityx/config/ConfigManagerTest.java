@@ -0,0 +1,97 @@
+package org.r7l.rarityx.config;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.RecordingLogger;
+import org.r7l.rarityx.rarity.Rarity;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rarity tier parsing and code validation
+ * 
+ * @author R7LRod
+ */
+class ConfigManagerTest {
+    
+    private RarityX plugin;
+    
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        plugin = MockBukkit.load(RarityX.class);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+    
+    @Test
+    void invalidAndDuplicateCodesAreSkipped() {
+        ConfigurationSection rarities = plugin.getConfig().createSection("rarities");
+        rarities.createSection("legendary", Map.of("code", 5, "weight", 0.5));
+        rarities.createSection("ancient", Map.of("code", 5));
+        rarities.createSection("relic", Map.of("code", 3));
+        rarities.createSection("cursed", Map.of("code", 256));
+        rarities.createSection("nameless", Map.of("display-name", "Nameless"));
+        rarities.createSection("epic", Map.of("code", 9));
+        
+        RecordingLogger logger = new RecordingLogger();
+        List<Rarity> tiers = plugin.getConfigManager().getRarityTiers(logger);
+        Map<String, Rarity> byKey = new HashMap<>();
+        Set<Integer> codes = new HashSet<>();
+        for (int i = 0; i < tiers.size(); i++) {
+            Rarity tier = tiers.get(i);
+            assertEquals(i, tier.getId());
+            assertTrue(codes.add(tier.getCode() & 0xFF), "duplicate code " + tier.getCode());
+            byKey.put(tier.getKey(), tier);
+        }
+        
+        assertEquals(5, byKey.get("legendary").getCode());
+        assertEquals(0.5, byKey.get("legendary").getDefaultWeight());
+        assertEquals(3, byKey.get("epic").getCode());
+        assertNull(byKey.get("ancient"));
+        assertNull(byKey.get("relic"));
+        assertNull(byKey.get("cursed"));
+        assertNull(byKey.get("nameless"));
+        assertWarned(logger, "ancient");
+        assertWarned(logger, "relic");
+        assertWarned(logger, "cursed");
+        assertWarned(logger, "nameless");
+        assertWarned(logger, "epic");
+    }
+    
+    @Test
+    void builtInTiersAreAlwaysKept() {
+        plugin.getConfig().createSection("rarities").createSection("legendary", Map.of("code", 5));
+        
+        List<Rarity> tiers = plugin.getConfigManager().getRarityTiers(new RecordingLogger());
+        Set<String> keys = new HashSet<>();
+        for (Rarity tier : tiers) {
+            keys.add(tier.getKey());
+        }
+        
+        for (Rarity builtIn : Rarity.getDefaults()) {
+            assertTrue(keys.contains(builtIn.getKey()), builtIn.getKey());
+        }
+        assertTrue(keys.contains("legendary"));
+    }
+    
+    private static void assertWarned(RecordingLogger logger, String key) {
+        assertTrue(logger.getWarnings().stream().anyMatch(warning -> warning.contains("Rarity " + key + " ")),
+            "no warning for " + key + " in " + logger.getWarnings());
+    }
+}
\ No newline at end of file
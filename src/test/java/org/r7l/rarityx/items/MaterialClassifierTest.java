@@ -0,0 +1,100 @@
+package org.r7l.rarityx.items;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.EquipmentSlot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.RecordingLogger;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Built-in classification and the {@code items} config overrides
+ * 
+ * @author R7LRod
+ */
+class MaterialClassifierTest {
+    
+    private RarityX plugin;
+    
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        plugin = MockBukkit.load(RarityX.class);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+    
+    @Test
+    void builtInRules() {
+        MaterialClassifier classifier = MaterialClassifier.load(plugin.getConfigManager(), new RecordingLogger());
+        
+        assertEquals(ItemCategory.WEAPON, classifier.getCategory(Material.DIAMOND_SWORD));
+        assertEquals(ItemCategory.WEAPON, classifier.getCategory(Material.TRIDENT));
+        assertEquals(ItemCategory.AXE, classifier.getCategory(Material.IRON_AXE));
+        assertEquals(ItemCategory.TOOL, classifier.getCategory(Material.NETHERITE_PICKAXE));
+        assertEquals(ItemCategory.RANGED, classifier.getCategory(Material.CROSSBOW));
+        assertEquals(ItemCategory.EQUIPMENT, classifier.getCategory(Material.ELYTRA));
+        assertEquals(ItemCategory.ARMOR, classifier.getCategory(Material.GOLDEN_BOOTS));
+        assertEquals(EquipmentSlot.FEET, classifier.getArmorSlot(Material.GOLDEN_BOOTS));
+        assertEquals(EquipmentSlot.HEAD, classifier.getArmorSlot(Material.TURTLE_HELMET));
+        assertEquals(ItemCategory.NONE, classifier.getCategory(Material.DIRT));
+        assertEquals(ItemCategory.NONE, classifier.getCategory(null));
+        assertFalse(classifier.isEligible(Material.DIRT));
+        assertFalse(classifier.isEligible(null));
+        assertNull(classifier.getArmorSlot(Material.DIAMOND_SWORD));
+    }
+    
+    @Test
+    void overridesAndExclusionsReplaceBuiltInRules() {
+        plugin.getConfig().set("items.categories.stick", "weapon");
+        plugin.getConfig().set("items.categories.DIAMOND_HELMET", "TOOL");
+        plugin.getConfig().set("items.categories.CARVED_PUMPKIN", "armor");
+        plugin.getConfig().set("items.exclude", List.of("elytra", "minecraft:wooden_sword"));
+        
+        MaterialClassifier classifier = MaterialClassifier.load(plugin.getConfigManager(), new RecordingLogger());
+        
+        assertEquals(ItemCategory.WEAPON, classifier.getCategory(Material.STICK));
+        assertTrue(classifier.isEligible(Material.STICK));
+        assertEquals(ItemCategory.TOOL, classifier.getCategory(Material.DIAMOND_HELMET));
+        assertNull(classifier.getArmorSlot(Material.DIAMOND_HELMET));
+        assertEquals(ItemCategory.ARMOR, classifier.getCategory(Material.CARVED_PUMPKIN));
+        assertFalse(classifier.isEligible(Material.ELYTRA));
+        assertFalse(classifier.isEligible(Material.WOODEN_SWORD));
+        assertTrue(classifier.isEligible(Material.STONE_SWORD));
+    }
+    
+    @Test
+    void exclusionsWinOverOverrides() {
+        plugin.getConfig().set("items.categories.STICK", "WEAPON");
+        plugin.getConfig().set("items.exclude", List.of("STICK"));
+        
+        MaterialClassifier classifier = MaterialClassifier.load(plugin.getConfigManager(), new RecordingLogger());
+        
+        assertFalse(classifier.isEligible(Material.STICK));
+    }
+    
+    @Test
+    void invalidEntriesAreSkippedWithAWarning() {
+        plugin.getConfig().set("items.categories.NOT_A_MATERIAL", "WEAPON");
+        plugin.getConfig().set("items.categories.BLAZE_ROD", "WAND");
+        plugin.getConfig().set("items.exclude", List.of("ALSO_NOT_A_MATERIAL"));
+        
+        RecordingLogger logger = new RecordingLogger();
+        MaterialClassifier classifier = MaterialClassifier.load(plugin.getConfigManager(), logger);
+        
+        assertFalse(classifier.isEligible(Material.BLAZE_ROD));
+        assertEquals(3, logger.getWarnings().size(), logger.getWarnings().toString());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package org.r7l.rarityx.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Log-linear histogram bucket math and percentiles
+ * 
+ * @author R7LRod
+ */
+class TimerSnapshotTest {
+    
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (long nanos = 0; nanos < 8; nanos++) {
+            assertEquals(nanos, TimerSnapshot.bucketOf(nanos));
+            assertEquals(nanos, TimerSnapshot.upperBoundOf((int) nanos));
+        }
+        assertEquals(0, TimerSnapshot.bucketOf(-5));
+    }
+    
+    @Test
+    void upperBoundsMapBackToTheirBucket() {
+        for (int bucket = 0; bucket < TimerSnapshot.BUCKETS; bucket++) {
+            long upper = TimerSnapshot.upperBoundOf(bucket);
+            assertEquals(bucket, TimerSnapshot.bucketOf(upper), "upper bound of " + bucket);
+            assertEquals(bucket + 1 == TimerSnapshot.BUCKETS ? bucket : bucket + 1,
+                TimerSnapshot.bucketOf(upper + 1), "value after bucket " + bucket);
+        }
+    }
+    
+    @Test
+    void bucketsAreWithinAnEighth() {
+        for (long nanos = 8; nanos < 1L << 40; nanos = nanos * 3 / 2 + 1) {
+            long upper = TimerSnapshot.upperBoundOf(TimerSnapshot.bucketOf(nanos));
+            assertTrue(upper >= nanos && upper - nanos <= nanos / 8, nanos + " reported as " + upper);
+        }
+    }
+    
+    @Test
+    void hugeValuesLandInTheLastBucket() {
+        assertEquals(TimerSnapshot.BUCKETS - 1, TimerSnapshot.bucketOf(1L << 45));
+        assertEquals(TimerSnapshot.BUCKETS - 1, TimerSnapshot.bucketOf(Long.MAX_VALUE));
+    }
+    
+    @Test
+    void percentilesReportTheBucketBound() {
+        TimerSnapshot snapshot = snapshotOf(1, 100);
+        
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getTotalNanos());
+        assertEquals(50, snapshot.getMeanNanos());
+        assertEquals(1, snapshot.getPercentileNanos(0));
+        assertEquals(TimerSnapshot.upperBoundOf(TimerSnapshot.bucketOf(50)), snapshot.getPercentileNanos(50));
+        assertEquals(TimerSnapshot.upperBoundOf(TimerSnapshot.bucketOf(90)), snapshot.getPercentileNanos(90));
+        // Capped by the maximum when it lies below the bucket bound
+        assertEquals(100, snapshot.getPercentileNanos(99));
+        assertEquals(100, snapshot.getPercentileNanos(100));
+        assertEquals(0, TimerSnapshot.EMPTY.getPercentileNanos(99));
+    }
+    
+    @Test
+    void plusAddsCountsAndBuckets() {
+        TimerSnapshot merged = snapshotOf(1, 10).plus(snapshotOf(1000, 1009));
+        
+        assertEquals(20, merged.getCount());
+        assertEquals(1009, merged.getMaxNanos());
+        assertEquals(TimerSnapshot.upperBoundOf(TimerSnapshot.bucketOf(10)), merged.getPercentileNanos(50));
+        assertEquals(1009, merged.getPercentileNanos(55));
+    }
+    
+    /**
+     * Snapshot of one call for every latency in a range
+     */
+    private static TimerSnapshot snapshotOf(long from, long to) {
+        long[] buckets = new long[TimerSnapshot.BUCKETS];
+        long total = 0;
+        for (long nanos = from; nanos <= to; nanos++) {
+            buckets[TimerSnapshot.bucketOf(nanos)]++;
+            total += nanos;
+        }
+        return new TimerSnapshot(to - from + 1, total, to, 0, buckets);
+    }
+}
\ No newline at end of file
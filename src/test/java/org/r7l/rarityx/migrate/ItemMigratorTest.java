@@ -0,0 +1,223 @@
+package org.r7l.rarityx.migrate;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.bukkit.Material;
+import org.bukkit.attribute.AttributeModifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.r7l.rarityx.RarityX;
+import org.r7l.rarityx.buffs.BuffManager;
+import org.r7l.rarityx.buffs.BuffTemplate;
+import org.r7l.rarityx.rarity.Rarity;
+import org.r7l.rarityx.rarity.RarityManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Item data written by the migration must match what the plugin reads back
+ * 
+ * @author R7LRod
+ */
+class ItemMigratorTest {
+    
+    private static final int DATA_VERSION = 3839;
+    private static final Set<String> SLOTS = Set.of("any", "mainhand", "offhand", "feet", "legs", "chest", "head");
+    private static final Set<String> OPERATIONS = Set.of("add_value", "add_multiplied_base", "add_multiplied_total");
+    
+    private String namespace;
+    private String rarityKey;
+    private MigrationStats stats;
+    private ItemMigrator migrator;
+    
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        RarityX plugin = MockBukkit.load(RarityX.class);
+        namespace = plugin.getRarityManager().getRarityKey().getNamespace();
+        rarityKey = plugin.getRarityManager().getRarityKey().toString();
+        stats = new MigrationStats();
+        migrator = new ItemMigrator(namespace, stats);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+    
+    @Test
+    void storageKeyMatchesThePlugin() {
+        assertEquals(namespace + ":" + RarityManager.RARITY_KEY, rarityKey);
+        assertTrue(rarityKey.endsWith(":rarity_v" + RarityManager.STORAGE_VERSION));
+    }
+    
+    @Test
+    void chestContentsAreTaggedInTheComponentFormat() {
+        NbtCompound chunk = chunk(DATA_VERSION);
+        NbtList items = ((NbtCompound) chunk.getList("block_entities").get(0)).getList("Items");
+        for (int i = 0; i < 200; i++) {
+            items.add(item("minecraft:diamond_sword"));
+        }
+        
+        assertTrue(migrator.migrateChunk(chunk));
+        assertEquals(200, stats.itemsTagged.sum());
+        
+        int withModifiers = 0;
+        for (Object item : items) {
+            withModifiers += assertTagged((NbtCompound) item, Material.DIAMOND_SWORD);
+        }
+        // Tiers above common grant swords attack damage by default
+        assertTrue(withModifiers > 0);
+    }
+    
+    @Test
+    void entityEquipmentAndPlayerInventoriesAreTagged() {
+        NbtCompound zombie = new NbtCompound();
+        zombie.put("id", "minecraft:zombie");
+        NbtList armor = new NbtList(Nbt.COMPOUND);
+        armor.add(item("minecraft:iron_boots"));
+        zombie.put("ArmorItems", armor);
+        NbtCompound chunk = new NbtCompound();
+        chunk.put("DataVersion", DATA_VERSION);
+        NbtList entities = new NbtList(Nbt.COMPOUND);
+        entities.add(zombie);
+        chunk.put("Entities", entities);
+        
+        assertTrue(migrator.migrateChunk(chunk));
+        assertTagged((NbtCompound) armor.get(0), Material.IRON_BOOTS);
+        
+        NbtCompound player = new NbtCompound();
+        player.put("DataVersion", DATA_VERSION);
+        NbtList inventory = new NbtList(Nbt.COMPOUND);
+        inventory.add(item("minecraft:bow"));
+        player.put("Inventory", inventory);
+        player.put("EnderItems", new NbtList(Nbt.COMPOUND));
+        
+        assertTrue(migrator.migratePlayer(player));
+        assertTagged((NbtCompound) inventory.get(0), Material.BOW);
+    }
+    
+    @Test
+    void shulkerBoxContentsAreTagged() {
+        NbtCompound sword = item("minecraft:netherite_sword");
+        NbtCompound slot = new NbtCompound();
+        slot.put("slot", 0);
+        slot.put("item", sword);
+        NbtList container = new NbtList(Nbt.COMPOUND);
+        container.add(slot);
+        NbtCompound box = item("minecraft:shulker_box");
+        box.getOrCreateCompound("components").put("minecraft:container", container);
+        
+        assertTrue(migrator.migrateItem(box));
+        assertTagged(sword, Material.NETHERITE_SWORD);
+        assertNull(box.getCompound("components").get("minecraft:custom_data"));
+    }
+    
+    @Test
+    void taggedAndIneligibleItemsAreLeftAlone() {
+        NbtCompound tagged = item("minecraft:iron_sword");
+        bukkitValues(tagged).put(rarityKey, (byte) 4);
+        NbtCompound legacy = item("minecraft:iron_sword");
+        bukkitValues(legacy).put(namespace + ":" + RarityManager.LEGACY_RARITY_KEY, "MYTHIC");
+        NbtCompound dirt = item("minecraft:dirt");
+        
+        assertFalse(migrator.migrateItem(tagged));
+        assertFalse(migrator.migrateItem(legacy));
+        assertFalse(migrator.migrateItem(dirt));
+        assertNull(dirt.get("components"));
+        assertNull(tagged.getCompound("components").get("minecraft:lore"));
+        assertEquals(0, stats.itemsTagged.sum());
+    }
+    
+    @Test
+    void chunksOlderThanItemComponentsAreSkipped() {
+        NbtCompound chunk = chunk(ItemMigrator.MIN_DATA_VERSION - 1);
+        NbtList items = ((NbtCompound) chunk.getList("block_entities").get(0)).getList("Items");
+        items.add(item("minecraft:diamond_sword"));
+        
+        assertFalse(migrator.migrateChunk(chunk));
+        assertEquals(1, stats.chunksSkipped.sum());
+        assertNull(((NbtCompound) items.get(0)).get("components"));
+    }
+    
+    /**
+     * Check the rarity tag, lore and modifiers of a migrated item
+     * @return Number of modifiers written
+     */
+    private int assertTagged(NbtCompound item, Material material) {
+        NbtCompound components = item.getCompound("components");
+        assertNotNull(components, "components of " + material);
+        Object code = bukkitValues(item).get(rarityKey);
+        assertInstanceOf(Byte.class, code);
+        Rarity rarity = Rarity.fromCode((Byte) code);
+        assertNotNull(rarity);
+        
+        NbtList lore = components.getList("minecraft:lore");
+        assertEquals(Nbt.STRING, lore.getElementType());
+        assertEquals("{\"italic\":false,\"text\":\"\"}", lore.get(0));
+        assertEquals("{\"italic\":false,\"text\":\"" + rarity.getLoreLine() + "\"}", lore.get(1));
+        
+        BuffTemplate template = BuffManager.getTemplates().get(material, rarity);
+        int count = template != null ? template.getModifierCount() : 0;
+        if (count == 0) {
+            assertNull(components.get("minecraft:attribute_modifiers"));
+            return 0;
+        }
+        
+        NbtList modifiers = components.getCompound("minecraft:attribute_modifiers").getList("modifiers");
+        assertEquals(Nbt.COMPOUND, modifiers.getElementType());
+        assertEquals(count, modifiers.size());
+        for (int i = 0; i < count; i++) {
+            NbtCompound entry = (NbtCompound) modifiers.get(i);
+            AttributeModifier modifier = template.getModifier(i);
+            assertEquals(List.of("type", "slot", "uuid", "name", "amount", "operation"), List.copyOf(entry.keySet()));
+            assertEquals(template.getAttribute(i).getKey().toString(), entry.getString("type"));
+            assertTrue(SLOTS.contains(entry.getString("slot")), entry.getString("slot"));
+            assertArrayEquals(toIntArray(modifier.getUniqueId()), (int[]) entry.get("uuid"));
+            assertEquals(modifier.getName(), entry.getString("name"));
+            assertEquals(modifier.getAmount(), entry.get("amount"));
+            assertTrue(OPERATIONS.contains(entry.getString("operation")), entry.getString("operation"));
+        }
+        return count;
+    }
+    
+    private static NbtCompound bukkitValues(NbtCompound item) {
+        return item.getOrCreateCompound("components").getOrCreateCompound("minecraft:custom_data")
+            .getOrCreateCompound("PublicBukkitValues");
+    }
+    
+    private static NbtCompound chunk(int dataVersion) {
+        NbtCompound chunk = new NbtCompound();
+        chunk.put("DataVersion", dataVersion);
+        NbtCompound chest = new NbtCompound();
+        chest.put("id", "minecraft:chest");
+        chest.put("Items", new NbtList(Nbt.COMPOUND));
+        NbtList blockEntities = new NbtList(Nbt.COMPOUND);
+        blockEntities.add(chest);
+        chunk.put("block_entities", blockEntities);
+        return chunk;
+    }
+    
+    private static NbtCompound item(String id) {
+        NbtCompound item = new NbtCompound();
+        item.put("id", id);
+        item.put("count", 1);
+        return item;
+    }
+    
+    private static int[] toIntArray(UUID uuid) {
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        return new int[] {(int) (most >> 32), (int) most, (int) (least >> 32), (int) least};
+    }
+}
\ No newline at end of file
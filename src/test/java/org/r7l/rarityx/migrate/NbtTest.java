@@ -0,0 +1,127 @@
+package org.r7l.rarityx.migrate;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Binary NBT encoding round trips
+ * 
+ * @author R7LRod
+ */
+class NbtTest {
+    
+    @Test
+    void everyTagTypeRoundTrips() throws IOException {
+        NbtCompound root = new NbtCompound();
+        root.put("byte", (byte) -3);
+        root.put("short", (short) 1234);
+        root.put("int", 3839);
+        root.put("long", Long.MIN_VALUE);
+        root.put("float", 1.5f);
+        root.put("double", -0.25);
+        root.put("bytes", new byte[] {1, 2, 3});
+        root.put("string", "§7Rarity: §6Mythic é中");
+        root.put("ints", new int[] {-1, 0, Integer.MAX_VALUE});
+        root.put("longs", new long[] {Long.MAX_VALUE, 7});
+        NbtList strings = new NbtList(Nbt.STRING);
+        strings.add("a");
+        strings.add("b");
+        root.put("list", strings);
+        NbtCompound child = root.getOrCreateCompound("child");
+        child.put("id", "minecraft:diamond_sword");
+        child.put("count", 1);
+        
+        NbtCompound read = roundTrip(root);
+        
+        assertEquals(root.keySet().stream().toList(), read.keySet().stream().toList());
+        assertEquals((byte) -3, read.get("byte"));
+        assertEquals((short) 1234, read.get("short"));
+        assertEquals(3839, read.getInt("int", 0));
+        assertEquals(Long.MIN_VALUE, read.get("long"));
+        assertEquals(1.5f, read.get("float"));
+        assertEquals(-0.25, read.get("double"));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) read.get("bytes"));
+        assertEquals(root.get("string"), read.getString("string"));
+        assertArrayEquals(new int[] {-1, 0, Integer.MAX_VALUE}, (int[]) read.get("ints"));
+        assertArrayEquals(new long[] {Long.MAX_VALUE, 7}, (long[]) read.get("longs"));
+        assertEquals(strings, read.getList("list"));
+        assertEquals(Nbt.STRING, read.getList("list").getElementType());
+        assertEquals(child, read.getCompound("child"));
+    }
+    
+    @Test
+    void emptyListsKeepTheirElementType() throws IOException {
+        NbtCompound root = new NbtCompound();
+        root.put("empty", new NbtList(Nbt.COMPOUND));
+        
+        NbtList read = roundTrip(root).getList("empty");
+        
+        assertTrue(read.isEmpty());
+        assertEquals(Nbt.COMPOUND, read.getElementType());
+    }
+    
+    @Test
+    void reencodingIsByteForByte() throws IOException {
+        NbtCompound root = new NbtCompound();
+        NbtList items = new NbtList(Nbt.COMPOUND);
+        for (int i = 0; i < 3; i++) {
+            NbtCompound item = new NbtCompound();
+            item.put("Slot", (byte) i);
+            item.put("id", "minecraft:iron_sword");
+            items.add(item);
+        }
+        root.put("Items", items);
+        
+        byte[] first = encode(root);
+        assertArrayEquals(first, encode(Nbt.readRoot(new DataInputStream(new ByteArrayInputStream(first)))));
+    }
+    
+    @Test
+    void nonCompoundRootIsRejected() {
+        byte[] data = {Nbt.STRING, 0, 0, 0, 1, 'x'};
+        
+        assertThrows(IOException.class, () -> Nbt.readRoot(new DataInputStream(new ByteArrayInputStream(data))));
+    }
+    
+    @Test
+    void deepNestingIsRejected() {
+        NbtCompound root = new NbtCompound();
+        NbtCompound current = root;
+        for (int i = 0; i < 600; i++) {
+            current = current.getOrCreateCompound("nested");
+        }
+        
+        assertThrows(IOException.class, () -> encode(root));
+    }
+    
+    @Test
+    void unsupportedValuesAreRejected() {
+        NbtCompound root = new NbtCompound();
+        root.put("uuid", UUID.randomUUID());
+        
+        assertThrows(IOException.class, () -> encode(root));
+    }
+    
+    private static NbtCompound roundTrip(NbtCompound root) throws IOException {
+        return Nbt.readRoot(new DataInputStream(new ByteArrayInputStream(encode(root))));
+    }
+    
+    private static byte[] encode(NbtCompound root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            Nbt.writeRoot(out, root);
+        }
+        return bytes.toByteArray();
+    }
+}
\ No newline at end of file
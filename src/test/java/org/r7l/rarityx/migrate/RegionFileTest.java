@@ -0,0 +1,113 @@
+package org.r7l.rarityx.migrate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Anvil region files written and read back
+ * 
+ * @author R7LRod
+ */
+class RegionFileTest {
+    
+    @TempDir
+    Path folder;
+    
+    @Test
+    void emptyFileHasNoChunks() throws IOException {
+        Path path = Files.createFile(folder.resolve("r.0.0.mca"));
+        
+        RegionFile region = RegionFile.read(path);
+        
+        for (int i = 0; i < RegionFile.CHUNKS; i++) {
+            assertFalse(region.hasChunk(i));
+        }
+    }
+    
+    @Test
+    void chunksRoundTrip() throws IOException {
+        RegionFile region = RegionFile.read(Files.createFile(folder.resolve("r.0.0.mca")));
+        NbtCompound first = chunk(3839, 16);
+        NbtCompound last = chunk(3953, 2);
+        region.writeChunk(0, first);
+        region.writeChunk(RegionFile.CHUNKS - 1, last);
+        Path written = folder.resolve("region").resolve("r.1.-1.mca");
+        region.write(written);
+        
+        RegionFile read = RegionFile.read(written);
+        
+        assertEquals(0, Files.size(written) % 4096);
+        assertTrue(read.hasChunk(0) && read.isReadable(0));
+        assertTrue(read.hasChunk(RegionFile.CHUNKS - 1));
+        assertFalse(read.hasChunk(1));
+        assertEquals(first, read.readChunk(0));
+        assertEquals(last, read.readChunk(RegionFile.CHUNKS - 1));
+    }
+    
+    @Test
+    void chunksSpanningSeveralSectorsRoundTrip() throws IOException {
+        // Random bytes do not compress, so the chunk needs several 4 KiB sectors
+        byte[] noise = new byte[20_000];
+        new Random(42).nextBytes(noise);
+        NbtCompound large = chunk(3839, 1);
+        large.put("noise", noise);
+        
+        RegionFile region = RegionFile.read(Files.createFile(folder.resolve("r.0.0.mca")));
+        region.writeChunk(5, large);
+        region.writeChunk(6, chunk(3839, 1));
+        Path written = folder.resolve("r.0.1.mca");
+        region.write(written);
+        RegionFile read = RegionFile.read(written);
+        
+        assertArrayEquals(noise, (byte[]) read.readChunk(5).get("noise"));
+        assertEquals(chunk(3839, 1), read.readChunk(6));
+    }
+    
+    @Test
+    void unchangedRegionsAreRewrittenByteForByte() throws IOException {
+        RegionFile region = RegionFile.read(Files.createFile(folder.resolve("r.0.0.mca")));
+        for (int i = 0; i < 40; i += 3) {
+            region.writeChunk(i, chunk(3839, i));
+        }
+        Path original = folder.resolve("original.mca");
+        region.write(original);
+        
+        Path copy = folder.resolve("copy.mca");
+        RegionFile.read(original).write(copy);
+        
+        assertArrayEquals(Files.readAllBytes(original), Files.readAllBytes(copy));
+    }
+    
+    /**
+     * Chunk with one chest holding some items
+     */
+    private static NbtCompound chunk(int dataVersion, int items) {
+        NbtCompound chunk = new NbtCompound();
+        chunk.put("DataVersion", dataVersion);
+        NbtList blockEntities = new NbtList(Nbt.COMPOUND);
+        NbtCompound chest = new NbtCompound();
+        chest.put("id", "minecraft:chest");
+        NbtList contents = new NbtList(Nbt.COMPOUND);
+        for (int i = 0; i < items; i++) {
+            NbtCompound item = new NbtCompound();
+            item.put("Slot", (byte) i);
+            item.put("id", "minecraft:diamond_sword");
+            item.put("count", 1);
+            contents.add(item);
+        }
+        chest.put("Items", contents);
+        blockEntities.add(chest);
+        chunk.put("block_entities", blockEntities);
+        return chunk;
+    }
+}
\ No newline at end of file
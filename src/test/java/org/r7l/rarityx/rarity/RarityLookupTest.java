@@ -0,0 +1,78 @@
+package org.r7l.rarityx.rarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Case-insensitive name parsing for {@link Rarity#fromString(String)}
+ * 
+ * @author R7LRod
+ */
+class RarityLookupTest {
+    
+    private static final Rarity[] TIERS = Rarity.getDefaults().toArray(new Rarity[0]);
+    private static final Rarity COMMON = TIERS[0];
+    private static final Rarity MYTHIC = TIERS[4];
+    
+    @Test
+    void keysAndDisplayNamesIgnoreCase() {
+        RarityLookup lookup = RarityLookup.of(TIERS, Map.of());
+        
+        for (Rarity rarity : TIERS) {
+            assertSame(rarity, lookup.get(rarity.getKey()));
+            assertSame(rarity, lookup.get(rarity.getKey().toUpperCase()));
+            assertSame(rarity, lookup.get(rarity.getDisplayName()));
+        }
+        assertSame(MYTHIC, lookup.get("mYtHiC"));
+    }
+    
+    @Test
+    void aliasesIgnoreCase() {
+        RarityLookup lookup = RarityLookup.of(TIERS, Map.of("Legendary", MYTHIC, "épique", TIERS[3]));
+        
+        assertSame(MYTHIC, lookup.get("legendary"));
+        assertSame(MYTHIC, lookup.get("LEGENDARY"));
+        assertSame(TIERS[3], lookup.get("ÉPIQUE"));
+    }
+    
+    @Test
+    void builtInNamesWinOverAliases() {
+        RarityLookup lookup = RarityLookup.of(TIERS, Map.of("COMMON", MYTHIC));
+        
+        assertSame(COMMON, lookup.get("common"));
+    }
+    
+    @Test
+    void unknownNamesAreMisses() {
+        Map<String, Rarity> aliases = new HashMap<>();
+        aliases.put("myth", MYTHIC);
+        aliases.put("ignored", null);
+        RarityLookup lookup = RarityLookup.of(TIERS, aliases);
+        
+        assertNull(lookup.get(null));
+        assertNull(lookup.get(""));
+        assertNull(lookup.get("unknown"));
+        assertNull(lookup.get("mythi"));
+        assertNull(lookup.get("mythical"));
+        assertNull(lookup.get("ignored"));
+    }
+    
+    @Test
+    void largeAliasTablesResolveEveryEntry() {
+        Map<String, Rarity> aliases = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            aliases.put("Alias" + i, TIERS[i % TIERS.length]);
+        }
+        RarityLookup lookup = RarityLookup.of(TIERS, aliases);
+        
+        for (int i = 0; i < 500; i++) {
+            assertSame(TIERS[i % TIERS.length], lookup.get("alias" + i));
+        }
+        assertNull(lookup.get("alias500"));
+    }
+}
\ No newline at end of file
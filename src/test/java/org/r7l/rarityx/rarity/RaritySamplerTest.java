@@ -0,0 +1,86 @@
+package org.r7l.rarityx.rarity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Alias tables must reproduce the configured weights exactly
+ * 
+ * @author R7LRod
+ */
+class RaritySamplerTest {
+    
+    private static final Rarity[] TIERS = Rarity.getDefaults().toArray(new Rarity[0]);
+    
+    // Uniform values evenly spread over [0, 1), so counts are exact up to the grid spacing
+    private static final int GRID = 100_000;
+    
+    @Test
+    void defaultWeightsAreReproduced() {
+        assertDistribution(new double[] {60.0, 25.0, 10.0, 4.0, 1.0});
+    }
+    
+    @Test
+    void unevenWeightsAreReproduced() {
+        assertDistribution(new double[] {0.5, 1000.0, 3.0, 0.25, 77.0});
+    }
+    
+    @Test
+    void zeroAndNegativeWeightsAreNeverDrawn() {
+        RaritySampler sampler = RaritySampler.of(TIERS, new double[] {1.0, 0.0, -5.0, 0.0, 1.0});
+        long[] counts = sampleGrid(sampler);
+        
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[3]);
+        assertEquals(GRID / 2.0, counts[0], GRID * 0.001);
+        assertEquals(GRID / 2.0, counts[4], GRID * 0.001);
+    }
+    
+    @Test
+    void degenerateWeightsRollTheFirstRarity() {
+        RaritySampler zero = RaritySampler.of(TIERS, new double[5]);
+        RaritySampler infinite = RaritySampler.of(TIERS, new double[] {1.0, Double.POSITIVE_INFINITY, 1.0, 1.0, 1.0});
+        
+        for (double uniform : new double[] {0.0, 0.3, 0.999999}) {
+            assertSame(TIERS[0], zero.sample(uniform));
+            assertSame(TIERS[0], infinite.sample(uniform));
+        }
+    }
+    
+    @Test
+    void edgeUniformsDrawTheOnlyWeightedTier() {
+        RaritySampler sampler = RaritySampler.of(TIERS, new double[] {0.0, 0.0, 0.0, 0.0, 1.0});
+        
+        assertSame(TIERS[4], sampler.sample(0.0));
+        assertSame(TIERS[4], sampler.sample(Math.nextDown(1.0)));
+    }
+    
+    @Test
+    void weightCountMustMatchTiers() {
+        assertThrows(IllegalArgumentException.class, () -> RaritySampler.of(TIERS, new double[] {1.0, 2.0}));
+    }
+    
+    private static void assertDistribution(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        
+        long[] counts = sampleGrid(RaritySampler.of(TIERS, weights));
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / total, (double) counts[i] / GRID, 0.001, "share of " + TIERS[i]);
+        }
+    }
+    
+    private static long[] sampleGrid(RaritySampler sampler) {
+        long[] counts = new long[TIERS.length];
+        for (int i = 0; i < GRID; i++) {
+            counts[sampler.sample((i + 0.5) / GRID).getId()]++;
+        }
+        return counts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package org.r7l.rarityx.rarity;
+
+import org.bukkit.ChatColor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tier definition and registry installation
+ * 
+ * @author R7LRod
+ */
+class RarityTest {
+    
+    // Other tests may leave tiers loaded from a plugin's config installed
+    @BeforeEach
+    void installDefaults() {
+        Rarity.install(Rarity.getDefaults(), Map.of(), RaritySettings.defaults(Rarity.getDefaults()));
+    }
+    
+    @Test
+    void builtInCodesResolve() {
+        for (Rarity rarity : Rarity.getDefaults()) {
+            assertSame(rarity, Rarity.fromCode(rarity.getCode()));
+            assertSame(rarity, Rarity.fromId(rarity.getId()));
+        }
+        assertNull(Rarity.fromCode((byte) 5));
+        assertNull(Rarity.fromId(-1));
+        assertNull(Rarity.fromId(Rarity.getDefaults().size()));
+    }
+    
+    @Test
+    void codesOutsideAByteAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> define(5, "low", -1));
+        assertThrows(IllegalArgumentException.class, () -> define(5, "high", 256));
+    }
+    
+    @Test
+    void customTiersResolveByUnsignedCode() {
+        List<Rarity> tiers = new ArrayList<>(Rarity.getDefaults());
+        Rarity legendary = define(tiers.size(), "Legendary", 200);
+        tiers.add(legendary);
+        
+        Rarity.install(tiers, Map.of(), RaritySettings.defaults(tiers));
+        
+        assertEquals("legendary", legendary.getKey());
+        assertSame(legendary, Rarity.fromCode((byte) 200));
+        assertSame(legendary, Rarity.fromString("LEGENDARY"));
+        assertSame(legendary, Rarity.fromId(5));
+        assertEquals(tiers, Rarity.getAll());
+    }
+    
+    @Test
+    void installRejectsSettingsBuiltForOtherTiers() {
+        List<Rarity> tiers = new ArrayList<>(Rarity.getDefaults());
+        tiers.add(define(tiers.size(), "legendary", 5));
+        
+        RaritySettings defaultSettings = RaritySettings.defaults(Rarity.getDefaults());
+        assertThrows(IllegalArgumentException.class, () -> Rarity.install(tiers, Map.of(), defaultSettings));
+        assertNull(Rarity.fromCode((byte) 5));
+    }
+    
+    private static Rarity define(int id, String key, int code) {
+        return Rarity.define(id, key, code, key, ChatColor.RED, 1.0, 2.5, 1.0, "mythic", Rarity.DEFAULT_LORE_FORMAT);
+    }
+}
\ No newline at end of file